@@ -0,0 +1,99 @@
+package com.crm.system.common.config;
+
+import com.crm.system.common.result.Result;
+import com.crm.system.common.security.JwtAuthenticationFilter;
+import com.crm.system.common.security.TokenVerifier;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Spring Security 配置类
+ *
+ * <p>无状态 JWT 认证：不创建会话、不使用表单和 Basic 登录，
+ * 由 {@link JwtAuthenticationFilter} 在每个请求开始时验证 Token 并设置当前登录用户</p>
+ *
+ * <p>默认强制认证（失败即拒绝）。本地开发可显式设置 {@code crm.security.enforce=false} 放行普通接口，
+ * 但导出、导入、重建索引等批量数据接口以及监控端点、Druid 控制台始终需要登录</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Configuration
+public class SecurityConfig {
+
+    /**
+     * 无需登录即可访问的路径：接口文档和健康检查
+     *
+     * <p>其他监控端点（含可清空统计数据的端点）和 Druid 控制台都需要登录</p>
+     */
+    private static final String[] PUBLIC_PATHS = {
+            "/doc.html", "/webjars/**", "/swagger-resources/**", "/v2/api-docs/**",
+            "/actuator/health", "/actuator/health/**", "/error"
+    };
+
+    /**
+     * 无论是否强制认证都需要登录的路径：批量数据接口、监控端点和 Druid 控制台
+     */
+    private static final String[] SENSITIVE_PATHS = {
+            "/v1/customers/export", "/v1/customers/import", "/v1/customers/import/**",
+            "/v1/customers/search/rebuild", "/actuator/**", "/druid/**"
+    };
+
+    @Value("${crm.security.enforce:true}")
+    private boolean enforce;
+
+    /**
+     * 安全过滤器链
+     *
+     * @param http         HttpSecurity
+     * @param tokenVerifier Token 验证
+     * @param objectMapper JSON 序列化器
+     * @return 过滤器链
+     * @throws Exception 配置异常
+     */
+    @Bean
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, TokenVerifier tokenVerifier,
+                                                   ObjectMapper objectMapper) throws Exception {
+        http.csrf().disable()
+                .formLogin().disable()
+                .httpBasic().disable()
+                .logout().disable()
+                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                .and()
+                .exceptionHandling()
+                .authenticationEntryPoint((request, response, e) -> {
+                    response.setStatus(HttpStatus.UNAUTHORIZED.value());
+                    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+                    objectMapper.writeValue(response.getWriter(), Result.unauthorized("未登录或登录已过期"));
+                })
+                .and()
+                .addFilterBefore(new JwtAuthenticationFilter(tokenVerifier), UsernamePasswordAuthenticationFilter.class);
+
+        if (enforce) {
+            http.authorizeRequests()
+                    .antMatchers(PUBLIC_PATHS).permitAll()
+                    .anyRequest().authenticated();
+        } else {
+            // 显式关闭强制认证（仅限本地开发）：普通接口放行，敏感路径仍需登录
+            log.warn("crm.security.enforce=false，普通接口无需认证，仅限本地开发使用");
+            http.authorizeRequests()
+                    .antMatchers(PUBLIC_PATHS).permitAll()
+                    .antMatchers(SENSITIVE_PATHS).authenticated()
+                    .anyRequest().permitAll();
+        }
+        return http.build();
+    }
+}
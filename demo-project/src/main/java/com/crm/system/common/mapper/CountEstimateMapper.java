@@ -0,0 +1,49 @@
+package com.crm.system.common.mapper;
+
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 行数估算Mapper
+ *
+ * <p>表名由调用方从实体元数据中获取，不接受外部输入</p>
+ */
+@Mapper
+public interface CountEstimateMapper {
+
+    /**
+     * 查询表的估算行数（InnoDB 统计信息）
+     *
+     * @param table 表名
+     * @return 估算行数
+     */
+    @Select("SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = #{table}")
+    Long selectTableRows(@Param("table") String table);
+
+    /**
+     * 获取带筛选条件查询的执行计划
+     *
+     * <p>自定义 SQL 不会自动追加逻辑删除条件，由调用方传入逻辑删除列和未删除值</p>
+     *
+     * @param table          表名
+     * @param logicColumn    逻辑删除列，表未启用逻辑删除时为null
+     * @param notDeletedValue 未删除值
+     * @param wrapper        筛选条件（不含排序）
+     * @return 执行计划（含 rows、filtered 估算列）
+     */
+    @Select("<script>EXPLAIN SELECT 1 FROM ${table}"
+            + "<where>"
+            + "<if test=\"ew.nonEmptyOfWhere\">${ew.sqlSegment}</if>"
+            + "<if test=\"logicColumn != null\"> AND ${logicColumn} = ${notDeletedValue}</if>"
+            + "</where></script>")
+    List<Map<String, Object>> explain(@Param("table") String table,
+                                      @Param("logicColumn") String logicColumn,
+                                      @Param("notDeletedValue") String notDeletedValue,
+                                      @Param(Constants.WRAPPER) Wrapper<?> wrapper);
+}
@@ -0,0 +1,22 @@
+package com.crm.system.common.page;
+
+/**
+ * 分页总数统计模式
+ */
+public enum CountMode {
+
+    /**
+     * 精确统计：每次执行 COUNT(*)
+     */
+    EXACT,
+
+    /**
+     * 缓存统计：相同筛选条件的精确总数缓存一段时间
+     */
+    CACHED,
+
+    /**
+     * 估算统计：使用 EXPLAIN 或 information_schema 的估算行数，不扫描数据
+     */
+    ESTIMATED
+}
@@ -0,0 +1,37 @@
+package com.crm.system.common.page;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+
+/**
+ * 由 {@link PageCounter} 统计总数的分页对象
+ *
+ * <p>记录总数的统计模式，以便响应中标明总数是否精确</p>
+ *
+ * @param <T> 数据类型
+ */
+public class CountedPage<T> extends Page<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private CountMode countMode = CountMode.EXACT;
+
+    public CountedPage(long current, long size) {
+        // 总数由 PageCounter 单独统计，不再由分页插件执行 COUNT
+        super(current, size, false);
+    }
+
+    public CountMode getCountMode() {
+        return countMode;
+    }
+
+    public void setCountMode(CountMode countMode) {
+        this.countMode = countMode;
+    }
+
+    /**
+     * 总数是否精确（缓存模式下的总数在缓存有效期内可能滞后，视为不精确）
+     */
+    public boolean isTotalExact() {
+        return countMode == CountMode.EXACT;
+    }
+}
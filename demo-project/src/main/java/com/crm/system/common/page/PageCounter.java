@@ -0,0 +1,153 @@
+package com.crm.system.common.page;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.crm.system.common.mapper.CountEstimateMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分页总数统计
+ *
+ * <p>替代分页插件自带的 COUNT(*)，按请求选择统计模式：</p>
+ * <ul>
+ *   <li>EXACT：精确 COUNT(*)</li>
+ *   <li>CACHED：按表名和规范化后的筛选条件缓存精确总数，有效期内不再重复统计</li>
+ *   <li>ESTIMATED：无筛选条件且表未启用逻辑删除时取 information_schema 的表行数，
+ *       否则取 EXPLAIN 的 rows × filtered（带上逻辑删除条件）</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PageCounter {
+
+    /**
+     * 条件参数名（MPGENVAL1、MPGENVAL2...）按生成顺序排序
+     */
+    private static final Comparator<String> PARAM_ORDER =
+            Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+
+    @Value("${crm.page.default-count-mode:EXACT}")
+    private CountMode defaultCountMode;
+
+    @Value("${crm.page.count-cache-seconds:30}")
+    private long countCacheSeconds;
+
+    @Value("${crm.page.count-cache-size:1000}")
+    private long countCacheSize;
+
+    private final CountEstimateMapper countEstimateMapper;
+
+    private Cache<String, Long> countCache;
+
+    @PostConstruct
+    public void init() {
+        this.countCache = Caffeine.newBuilder()
+                .maximumSize(countCacheSize)
+                .expireAfterWrite(countCacheSeconds, TimeUnit.SECONDS)
+                .build();
+    }
+
+    /**
+     * 创建分页对象
+     *
+     * @param current   当前页
+     * @param size      每页大小
+     * @param countMode 请求的统计模式，为空时使用默认模式
+     * @return 分页对象
+     */
+    public <T> CountedPage<T> newPage(long current, long size, CountMode countMode) {
+        CountedPage<T> page = new CountedPage<>(current, size);
+        page.setCountMode(countMode != null ? countMode : defaultCountMode);
+        return page;
+    }
+
+    /**
+     * 按分页对象的统计模式统计总数，并写入分页对象
+     *
+     * <p>应在追加排序条件之前调用</p>
+     *
+     * @param page        分页对象
+     * @param mapper      实体Mapper
+     * @param entityClass 实体类型
+     * @param wrapper     筛选条件
+     * @return 总数
+     */
+    public <T> long count(CountedPage<?> page, BaseMapper<T> mapper, Class<T> entityClass,
+                          LambdaQueryWrapper<T> wrapper) {
+        long total;
+        switch (page.getCountMode()) {
+            case CACHED:
+                String table = TableInfoHelper.getTableInfo(entityClass).getTableName();
+                total = countCache.get(cacheKey(table, wrapper), key -> mapper.selectCount(wrapper));
+                break;
+            case ESTIMATED:
+                total = estimate(page, mapper, entityClass, wrapper);
+                break;
+            default:
+                total = mapper.selectCount(wrapper);
+                break;
+        }
+        page.setTotal(total);
+        return total;
+    }
+
+    private <T> long estimate(CountedPage<?> page, BaseMapper<T> mapper, Class<T> entityClass,
+                              LambdaQueryWrapper<T> wrapper) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+        String table = tableInfo.getTableName();
+        // 表行数统计包含已逻辑删除的行，只适用于未启用逻辑删除的表
+        TableFieldInfo logicField = tableInfo.isWithLogicDelete() ? tableInfo.getLogicDeleteFieldInfo() : null;
+        try {
+            if (wrapper.isEmptyOfWhere() && logicField == null) {
+                Long rows = countEstimateMapper.selectTableRows(table);
+                return rows != null ? rows : 0L;
+            }
+            List<Map<String, Object>> plan = logicField != null
+                    ? countEstimateMapper.explain(table, logicField.getColumn(),
+                            logicField.getLogicNotDeleteValue(), wrapper)
+                    : countEstimateMapper.explain(table, null, null, wrapper);
+            if (!plan.isEmpty()) {
+                Object rows = plan.get(0).get("rows");
+                Object filtered = plan.get(0).get("filtered");
+                double estimate = rows instanceof Number ? ((Number) rows).doubleValue() : 0D;
+                if (filtered instanceof Number) {
+                    estimate = estimate * ((Number) filtered).doubleValue() / 100D;
+                }
+                return Math.round(estimate);
+            }
+        } catch (Exception e) {
+            log.warn("估算总数失败，改为精确统计，表: {}", table, e);
+        }
+        page.setCountMode(CountMode.EXACT);
+        return mapper.selectCount(wrapper);
+    }
+
+    /**
+     * 缓存键：表名 + 条件SQL片段 + 按顺序排列的条件参数值
+     */
+    private static String cacheKey(String table, LambdaQueryWrapper<?> wrapper) {
+        StringBuilder key = new StringBuilder(table).append('|').append(wrapper.getSqlSegment());
+        Map<String, Object> params = new TreeMap<>(PARAM_ORDER);
+        params.putAll(wrapper.getParamNameValuePairs());
+        for (Object value : params.values()) {
+            key.append('|').append(value);
+        }
+        return key.toString();
+    }
+}
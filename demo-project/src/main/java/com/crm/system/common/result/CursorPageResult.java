@@ -0,0 +1,61 @@
+package com.crm.system.common.result;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 游标分页响应结果
+ *
+ * <p>按排序键定位而不是按偏移量跳过，任意深度翻页的代价都与第一页相同</p>
+ *
+ * @param <T> 数据类型
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPageResult<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 每页大小
+     */
+    private Long size;
+
+    /**
+     * 下一页游标（没有下一页时为空）
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private Boolean hasMore;
+
+    /**
+     * 总记录数（仅在请求时统计）
+     */
+    private Long total;
+
+    /**
+     * 数据列表
+     */
+    private List<T> records;
+
+    /**
+     * 转换数据类型
+     */
+    public <R> CursorPageResult<R> convert(Function<? super T, ? extends R> mapper) {
+        CursorPageResult<R> result = new CursorPageResult<>();
+        result.setSize(size);
+        result.setNextCursor(nextCursor);
+        result.setHasMore(hasMore);
+        result.setTotal(total);
+        result.setRecords(records.stream().map(mapper).collect(Collectors.toList()));
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+package com.crm.system.common.result;
+
+import com.crm.system.common.exception.BusinessException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 分页游标（排序时间 + 主键ID）
+ *
+ * <p>对外以 Base64URL 编码的不透明字符串传递，调用方不应解析其内容</p>
+ */
+@Getter
+@AllArgsConstructor
+public class PageCursor {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * 单页最大条数，与分页插件的上限保持一致
+     */
+    public static final int MAX_SIZE = 1000;
+
+    /**
+     * 上一页最后一条记录的排序时间
+     */
+    private final LocalDateTime time;
+
+    /**
+     * 上一页最后一条记录的主键ID
+     */
+    private final Long id;
+
+    /**
+     * 编码为游标字符串
+     */
+    public String encode() {
+        String raw = time.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 校验游标分页的每页条数
+     *
+     * <p>游标分页通过 LIMIT 取数，不经过分页插件的单页上限，需要单独校验</p>
+     *
+     * @param size 每页条数
+     * @return 每页条数
+     */
+    public static int checkSize(Long size) {
+        if (size == null || size < 1 || size > MAX_SIZE) {
+            throw new BusinessException("每页条数必须在1到" + MAX_SIZE + "之间");
+        }
+        return size.intValue();
+    }
+
+    /**
+     * 解析游标字符串
+     *
+     * @param cursor 游标字符串，为空表示第一页
+     * @return 游标，第一页返回null
+     */
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, index)), Long.parseLong(raw.substring(index + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new BusinessException("分页游标无效");
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.crm.system.common.result;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.crm.system.common.page.CountedPage;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
@@ -33,6 +34,11 @@ public class PageResult<T> implements Serializable {
      */
     private Long total;
 
+    /**
+     * 总记录数是否精确（缓存或估算的总数为false）
+     */
+    private Boolean totalExact;
+
     /**
      * 总页数
      */
@@ -51,6 +57,7 @@ public class PageResult<T> implements Serializable {
         pageResult.setCurrent(page.getCurrent());
         pageResult.setSize(page.getSize());
         pageResult.setTotal(page.getTotal());
+        pageResult.setTotalExact(!(page instanceof CountedPage) || ((CountedPage<?>) page).isTotalExact());
         pageResult.setPages(page.getPages());
         pageResult.setRecords(page.getRecords());
         return pageResult;
@@ -0,0 +1,68 @@
+package com.crm.system.common.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.Getter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.Serializable;
+import java.security.Principal;
+
+/**
+ * 当前登录用户
+ *
+ * <p>由 JWT 认证过滤器在请求开始时根据 Token 创建一次，之后只读</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Getter
+public final class CrmPrincipal implements Principal, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long userId;
+
+    private final String username;
+
+    private final Long roleId;
+
+    public CrmPrincipal(Long userId, String username, Long roleId) {
+        this.userId = userId;
+        this.username = username;
+        this.roleId = roleId;
+    }
+
+    /**
+     * 根据已验证的 Claims 创建
+     *
+     * @param claims Claims 对象
+     * @return 当前登录用户
+     */
+    public static CrmPrincipal of(Claims claims) {
+        return new CrmPrincipal(JwtUtil.getUserId(claims), JwtUtil.getUsername(claims), JwtUtil.getRoleId(claims));
+    }
+
+    /**
+     * 获取当前线程安全上下文中的登录用户
+     *
+     * @return 当前登录用户；未登录时返回 null
+     */
+    public static CrmPrincipal current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof CrmPrincipal) {
+            return (CrmPrincipal) authentication.getPrincipal();
+        }
+        return null;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return "CrmPrincipal{userId=" + userId + ", username=" + username + ", roleId=" + roleId + "}";
+    }
+}
@@ -0,0 +1,46 @@
+package com.crm.system.common.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+
+/**
+ * JWT 认证过滤器
+ *
+ * <p>每个请求验证一次 Token，通过后把 {@link CrmPrincipal} 放入安全上下文；
+ * 未携带或携带无效 Token 时不设置认证信息，由授权规则决定是否放行</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private final TokenVerifier tokenVerifier;
+
+    public JwtAuthenticationFilter(TokenVerifier tokenVerifier) {
+        this.tokenVerifier = tokenVerifier;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Claims claims = tokenVerifier.verify(tokenVerifier.extractToken(request));
+        if (claims != null) {
+            UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(CrmPrincipal.of(claims), null, Collections.emptyList());
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(authentication);
+            SecurityContextHolder.setContext(context);
+        }
+        chain.doFilter(request, response);
+    }
+}
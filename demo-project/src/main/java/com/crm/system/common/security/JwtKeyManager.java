@@ -0,0 +1,199 @@
+package com.crm.system.common.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.impl.TextCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JWT 密钥管理
+ *
+ * <p>启动时一次性构建全部密钥对象，签名和验签不再每次解码密钥字符串：</p>
+ * <ul>
+ *   <li>HS512：共享密钥签名和验签，jwt.secret 为当前密钥，jwt.retired-secrets 为轮换前仍需验签的旧密钥</li>
+ *   <li>ES256：私钥签名、公钥验签，只配置 jwt.ec.public-keys 的节点可以验签但不能签发 Token</li>
+ * </ul>
+ *
+ * <p>签发的 Token 在头部带 kid，验签时按 kid 选择密钥，并要求 Token 的算法与密钥一致；
+ * 没有 kid 的旧 Token 使用 jwt.secret 验签。轮换密钥时先把新公钥/旧密钥加入验签列表，
+ * 再切换 jwt.kid，旧 Token 过期后移除旧密钥。</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class JwtKeyManager extends SigningKeyResolverAdapter {
+
+    @Value("${jwt.algorithm:HS512}")
+    private SignatureAlgorithm algorithm;
+
+    @Value("${jwt.kid:k1}")
+    private String activeKid;
+
+    @Value("${jwt.secret:}")
+    private String secret;
+
+    /**
+     * 格式：kid:secret,kid:secret
+     */
+    @Value("${jwt.retired-secrets:}")
+    private String retiredSecrets;
+
+    /**
+     * PKCS#8 DER 的 Base64
+     */
+    @Value("${jwt.ec.private-key:}")
+    private String ecPrivateKey;
+
+    /**
+     * 格式：kid:X.509 DER 的 Base64,kid:...
+     */
+    @Value("${jwt.ec.public-keys:}")
+    private String ecPublicKeys;
+
+    private Map<String, VerificationKey> verificationKeys;
+
+    private VerificationKey legacyKey;
+
+    private Key signingKey;
+
+    @PostConstruct
+    public void init() {
+        if (algorithm != SignatureAlgorithm.HS512 && algorithm != SignatureAlgorithm.ES256) {
+            throw new IllegalStateException("不支持的 JWT 签名算法: " + algorithm + "，可选 HS512 或 ES256");
+        }
+        Map<String, VerificationKey> keys = new HashMap<>();
+
+        for (Map.Entry<String, String> entry : parsePairs(retiredSecrets).entrySet()) {
+            keys.put(entry.getKey(), new VerificationKey(SignatureAlgorithm.HS512, hmacKey(entry.getValue())));
+        }
+        if (StringUtils.isNotBlank(secret)) {
+            this.legacyKey = new VerificationKey(SignatureAlgorithm.HS512, hmacKey(secret));
+            if (algorithm == SignatureAlgorithm.HS512) {
+                keys.put(activeKid, legacyKey);
+            }
+        }
+        try {
+            KeyFactory ecFactory = KeyFactory.getInstance("EC");
+            for (Map.Entry<String, String> entry : parsePairs(ecPublicKeys).entrySet()) {
+                Key publicKey = ecFactory.generatePublic(
+                        new X509EncodedKeySpec(Base64.getDecoder().decode(entry.getValue())));
+                keys.put(entry.getKey(), new VerificationKey(SignatureAlgorithm.ES256, publicKey));
+            }
+            if (algorithm == SignatureAlgorithm.ES256 && StringUtils.isNotBlank(ecPrivateKey)) {
+                this.signingKey = ecFactory.generatePrivate(
+                        new PKCS8EncodedKeySpec(Base64.getDecoder().decode(ecPrivateKey.trim())));
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("JWT EC 密钥格式不正确", e);
+        }
+
+        if (algorithm == SignatureAlgorithm.HS512) {
+            this.signingKey = legacyKey != null ? legacyKey.key : null;
+        }
+        VerificationKey active = keys.get(activeKid);
+        if (signingKey != null && (active == null || active.algorithm != algorithm)) {
+            throw new IllegalStateException("当前签名密钥 " + activeKid + " 缺少对应的 " + algorithm + " 验签密钥");
+        }
+
+        this.verificationKeys = Collections.unmodifiableMap(keys);
+        log.info("JWT 密钥已加载，算法: {}，当前 kid: {}，验签密钥: {}，可签发: {}",
+                algorithm, activeKid, keys.keySet(), signingKey != null);
+    }
+
+    /**
+     * 当前签名算法
+     */
+    public SignatureAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * 当前签名密钥的 kid
+     */
+    public String getActiveKid() {
+        return activeKid;
+    }
+
+    /**
+     * 当前签名密钥
+     *
+     * @return 签名密钥
+     * @throws IllegalStateException 本节点只能验签
+     */
+    public Key getSigningKey() {
+        if (signingKey == null) {
+            throw new IllegalStateException("本节点未配置 JWT 签名密钥，只能验签");
+        }
+        return signingKey;
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        String kid = header.getKeyId();
+        VerificationKey key = kid != null ? verificationKeys.get(kid) : legacyKey;
+        if (key == null) {
+            throw new SignatureException("未知的 JWT 密钥: " + kid);
+        }
+        // 防止算法混淆：Token 声明的算法必须与密钥的算法一致
+        if (!key.algorithm.getValue().equals(header.getAlgorithm())) {
+            throw new SignatureException("JWT 算法与密钥不匹配: " + header.getAlgorithm());
+        }
+        return key.key;
+    }
+
+    /**
+     * 与 jjwt 使用字符串密钥时的处理一致（按 Base64 解码），保证已签发的 Token 仍能验签
+     */
+    private static Key hmacKey(String secret) {
+        return new SecretKeySpec(TextCodec.BASE64.decode(secret.trim()), SignatureAlgorithm.HS512.getJcaName());
+    }
+
+    private static Map<String, String> parsePairs(String value) {
+        Map<String, String> pairs = new HashMap<>();
+        if (StringUtils.isBlank(value)) {
+            return pairs;
+        }
+        for (String item : value.split(",")) {
+            int separator = item.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalStateException("JWT 密钥配置格式应为 kid:value，实际为: " + item);
+            }
+            pairs.put(item.substring(0, separator).trim(), item.substring(separator + 1).trim());
+        }
+        return pairs;
+    }
+
+    /**
+     * 验签密钥
+     */
+    private static final class VerificationKey {
+
+        private final SignatureAlgorithm algorithm;
+        private final Key key;
+
+        VerificationKey(SignatureAlgorithm algorithm, Key key) {
+            this.algorithm = algorithm;
+            this.key = key;
+        }
+    }
+}
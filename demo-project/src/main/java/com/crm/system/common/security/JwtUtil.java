@@ -1,8 +1,9 @@
 package com.crm.system.common.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -20,20 +21,17 @@ import java.util.Map;
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class JwtUtil {
 
-    /**
-     * JWT 密钥
-     */
-    @Value("${jwt.secret}")
-    private String secret;
-
     /**
      * Token 有效期（毫秒）
      */
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    private final JwtKeyManager jwtKeyManager;
+
     /**
      * 生成 Token
      *
@@ -61,10 +59,11 @@ public class JwtUtil {
         Date expiryDate = new Date(now.getTime() + expiration);
 
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, jwtKeyManager.getActiveKid())
                 .setClaims(claims)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(SignatureAlgorithm.HS512, secret)
+                .signWith(jwtKeyManager.getAlgorithm(), jwtKeyManager.getSigningKey())
                 .compact();
     }
 
@@ -75,7 +74,7 @@ public class JwtUtil {
      * @return 用户名
      */
     public String getUsernameFromToken(String token) {
-        return getClaimsFromToken(token).getSubject();
+        return getUsername(parseClaims(token));
     }
 
     /**
@@ -85,8 +84,7 @@ public class JwtUtil {
      * @return 用户 ID
      */
     public Long getUserIdFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return Long.valueOf(claims.get("userId").toString());
+        return getUserId(parseClaims(token));
     }
 
     /**
@@ -96,8 +94,7 @@ public class JwtUtil {
      * @return 角色 ID
      */
     public Long getRoleIdFromToken(String token) {
-        Claims claims = getClaimsFromToken(token);
-        return Long.valueOf(claims.get("roleId").toString());
+        return getRoleId(parseClaims(token));
     }
 
     /**
@@ -108,8 +105,8 @@ public class JwtUtil {
      */
     public boolean validateToken(String token) {
         try {
-            Jwts.parser().setSigningKey(secret).parseClaimsJws(token);
-            return !isTokenExpired(token);
+            parseClaims(token);
+            return true;
         } catch (Exception e) {
             log.error("Token 验证失败", e);
             return false;
@@ -117,26 +114,50 @@ public class JwtUtil {
     }
 
     /**
-     * 从 Token 中获取 Claims
+     * 验签并解析 Token
+     *
+     * <p>按 Token 头部的 kid 选择验签密钥，签名错误或已过期时抛出异常，过期时间在解析时一并校验</p>
      *
      * @param token Token 字符串
      * @return Claims 对象
      */
-    private Claims getClaimsFromToken(String token) {
+    public Claims parseClaims(String token) {
         return Jwts.parser()
-                .setSigningKey(secret)
+                .setSigningKeyResolver(jwtKeyManager)
                 .parseClaimsJws(token)
                 .getBody();
     }
 
     /**
-     * 判断 Token 是否过期
+     * 从 Claims 中获取用户名
      *
-     * @param token Token 字符串
-     * @return true-已过期 false-未过期
+     * @param claims Claims 对象
+     * @return 用户名
+     */
+    public static String getUsername(Claims claims) {
+        Object username = claims.get("username");
+        return username != null ? username.toString() : claims.getSubject();
+    }
+
+    /**
+     * 从 Claims 中获取用户 ID
+     *
+     * @param claims Claims 对象
+     * @return 用户 ID
+     */
+    public static Long getUserId(Claims claims) {
+        Object userId = claims.get("userId");
+        return userId != null ? Long.valueOf(userId.toString()) : null;
+    }
+
+    /**
+     * 从 Claims 中获取角色 ID
+     *
+     * @param claims Claims 对象
+     * @return 角色 ID
      */
-    private boolean isTokenExpired(String token) {
-        Date expiration = getClaimsFromToken(token).getExpiration();
-        return expiration.before(new Date());
+    public static Long getRoleId(Claims claims) {
+        Object roleId = claims.get("roleId");
+        return roleId != null ? Long.valueOf(roleId.toString()) : null;
     }
 }
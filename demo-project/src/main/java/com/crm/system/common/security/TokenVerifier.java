@@ -0,0 +1,149 @@
+package com.crm.system.common.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.http.HttpServletRequest;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token 验证
+ *
+ * <p>避免同一个 Token 被反复验签：每个请求由 {@link JwtAuthenticationFilter} 只验证一次；
+ * 请求间按 Token 的 SHA-256 摘要缓存验证通过的 Claims，缓存项在 Token 过期时同时失效，
+ * 同一会话的后续请求无需再做签名计算</p>
+ *
+ * <p>验证失败的 Token 不缓存</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenVerifier {
+
+    @Value("${jwt.header:Authorization}")
+    private String header;
+
+    @Value("${jwt.prefix:Bearer}")
+    private String prefix;
+
+    @Value("${jwt.verify-cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    private final JwtUtil jwtUtil;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<String, Claims> verifiedCache;
+
+    @PostConstruct
+    public void init() {
+        this.verifiedCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String key, Claims claims, long currentTime) {
+                        return remainingNanos(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+                        return remainingNanos(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedCache, "jwt.verified");
+    }
+
+    /**
+     * 验证 Token
+     *
+     * @param token Token 字符串
+     * @return 验证通过的 Claims；Token 为空、签名错误或已过期时返回 null
+     */
+    public Claims verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String digest = digest(token);
+        Claims claims = verifiedCache.getIfPresent(digest);
+        if (claims != null) {
+            return claims;
+        }
+
+        try {
+            claims = jwtUtil.parseClaims(token);
+        } catch (Exception e) {
+            log.debug("Token 验证失败: {}", e.getMessage());
+            return null;
+        }
+        if (remainingNanos(claims) > 0) {
+            verifiedCache.put(digest, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * 从请求头中提取 Token
+     *
+     * @param request HTTP请求
+     * @return Token 字符串
+     */
+    public String extractToken(HttpServletRequest request) {
+        return extractToken(request.getHeader(header));
+    }
+
+    /**
+     * 从请求头的值中提取 Token（去掉 Bearer 前缀）
+     *
+     * @param headerValue 请求头的值
+     * @return Token 字符串
+     */
+    public String extractToken(String headerValue) {
+        if (headerValue != null && headerValue.startsWith(prefix + " ")) {
+            return headerValue.substring(prefix.length() + 1);
+        }
+        return headerValue;
+    }
+
+    /**
+     * Token 剩余有效时间（纳秒），没有过期时间的 Token 不缓存
+     */
+    private static long remainingNanos(Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis()));
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
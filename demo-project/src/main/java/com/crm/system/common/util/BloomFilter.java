@@ -0,0 +1,92 @@
+package com.crm.system.common.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁布隆过滤器
+ *
+ * <p>位数组按 long 分组存放在 {@link AtomicLongArray} 中，置位使用 CAS，读写均无需加锁。
+ * 使用双重哈希 h1 + i * h2 模拟 k 个哈希函数。</p>
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int hashFunctions;
+
+    /**
+     * @param expectedInsertions 预计元素数
+     * @param fpp                期望误判率
+     */
+    public BloomFilter(long expectedInsertions, double fpp) {
+        long n = Math.max(1, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray(Math.toIntExact((Math.max(64, m) + 63) >>> 6));
+        this.bitSize = (long) bits.length() << 6;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+    }
+
+    /**
+     * 添加元素
+     *
+     * @param value 元素
+     */
+    public void put(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            long index = index(h1 + i * h2);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * 判断元素是否可能存在
+     *
+     * @param value 元素
+     * @return false 表示一定不存在；true 表示可能存在
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashFunctions; i++) {
+            long index = index(h1 + i * h2);
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(int combined) {
+        return (combined & Integer.MAX_VALUE) % bitSize;
+    }
+
+    /**
+     * 64位 FNV-1a 哈希，再经过一次 murmur3 终结混合，使高低32位都足够分散
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
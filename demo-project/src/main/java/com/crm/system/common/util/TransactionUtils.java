@@ -0,0 +1,31 @@
+package com.crm.system.common.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 事务工具类
+ */
+public final class TransactionUtils {
+
+    private TransactionUtils() {
+    }
+
+    /**
+     * 在当前事务提交后执行操作；没有活动事务时立即执行
+     *
+     * @param action 操作
+     */
+    public static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,203 @@
+package com.crm.system.modules.audit.advisor;
+
+import com.crm.system.modules.audit.dto.AuditQueryRequest;
+import com.crm.system.modules.audit.mapper.AuditLogMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 审计日志查询索引顾问
+ *
+ * <p>按查询形态（使用了哪些筛选条件 + 排序方向）统计审计日志分页查询的次数和耗时，
+ * 并对照当前索引判断每种形态能否由索引完成筛选和排序：</p>
+ * <ul>
+ *   <li>OPTIMAL：存在 (全部等值条件列..., operate_time) 的索引</li>
+ *   <li>PARTIAL：索引只覆盖部分等值条件列，其余条件需要回表过滤</li>
+ *   <li>FILESORT：等值条件能走索引，但排序需要额外的 filesort</li>
+ *   <li>MISSING：没有可用的索引</li>
+ * </ul>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditQueryAdvisor {
+
+    private static final String TIME_COLUMN = "operate_time";
+
+    /**
+     * 筛选条件到列名的映射（按建议索引中的列顺序：选择性高的在前）
+     */
+    private static final Map<String, String> EQUALITY_COLUMNS;
+
+    static {
+        Map<String, String> columns = new LinkedHashMap<>();
+        columns.put("businessId", "business_id");
+        columns.put("operatorId", "operator_id");
+        columns.put("moduleName", "module_name");
+        columns.put("operationType", "operation_type");
+        columns.put("reportStatus", "report_status");
+        EQUALITY_COLUMNS = Collections.unmodifiableMap(columns);
+    }
+
+    @Value("${audit.advisor.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.advisor.max-shapes:256}")
+    private int maxShapes;
+
+    private final AuditLogMapper auditLogMapper;
+
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次查询
+     *
+     * @param request      查询请求
+     * @param elapsedNanos 查询耗时（纳秒）
+     */
+    public void record(AuditQueryRequest request, long elapsedNanos) {
+        if (!enabled) {
+            return;
+        }
+        String shape = request.filterShape();
+        ShapeStats stats = shapes.get(shape);
+        if (stats == null) {
+            if (shapes.size() >= maxShapes) {
+                return;
+            }
+            stats = shapes.computeIfAbsent(shape, key -> new ShapeStats());
+        }
+        stats.count.increment();
+        stats.totalNanos.add(elapsedNanos);
+        stats.maxNanos.accumulate(elapsedNanos);
+    }
+
+    /**
+     * 生成分析报告（按查询次数降序）
+     *
+     * @return 每种查询形态的统计和索引建议
+     */
+    public List<Map<String, Object>> report() {
+        Map<String, List<String>> indexes = loadIndexes();
+
+        List<Map<String, Object>> report = new ArrayList<>(shapes.size());
+        for (Map.Entry<String, ShapeStats> entry : shapes.entrySet()) {
+            String shape = entry.getKey();
+            ShapeStats stats = entry.getValue();
+            long count = stats.count.sum();
+
+            Set<String> filters = new TreeSet<>(Arrays.asList(shape.substring(0, shape.indexOf('|')).split(",")));
+            List<String> equalityColumns = new ArrayList<>();
+            for (Map.Entry<String, String> column : EQUALITY_COLUMNS.entrySet()) {
+                if (filters.contains(column.getKey())) {
+                    equalityColumns.add(column.getValue());
+                }
+            }
+
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("shape", shape);
+            item.put("count", count);
+            item.put("avgMs", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(stats.totalNanos.sum() / count));
+            item.put("maxMs", TimeUnit.NANOSECONDS.toMillis(stats.maxNanos.get()));
+            analyze(item, equalityColumns, indexes);
+            if (filters.contains("operatorName")) {
+                item.put("note", "operator_name 为前后模糊匹配，无法使用索引");
+            }
+            report.add(item);
+        }
+        report.sort((a, b) -> Long.compare((Long) b.get("count"), (Long) a.get("count")));
+        return report;
+    }
+
+    /**
+     * 清空统计
+     */
+    public void reset() {
+        shapes.clear();
+    }
+
+    private void analyze(Map<String, Object> item, List<String> equalityColumns, Map<String, List<String>> indexes) {
+        String status = "MISSING";
+        String bestIndex = null;
+        int bestScore = -1;
+
+        for (Map.Entry<String, List<String>> index : indexes.entrySet()) {
+            List<String> columns = index.getValue();
+            // 最左前缀中连续命中的等值条件列数
+            int matched = 0;
+            while (matched < columns.size() && equalityColumns.contains(columns.get(matched))) {
+                matched++;
+            }
+            boolean sorted = matched < columns.size() && TIME_COLUMN.equals(columns.get(matched));
+
+            String candidate;
+            int score;
+            if (matched == equalityColumns.size() && sorted) {
+                candidate = "OPTIMAL";
+                score = 3000 + matched;
+            } else if (sorted) {
+                candidate = "PARTIAL";
+                score = 2000 + matched;
+            } else if (matched > 0) {
+                candidate = "FILESORT";
+                score = 1000 + matched;
+            } else {
+                continue;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                status = candidate;
+                bestIndex = index.getKey();
+            }
+        }
+
+        item.put("status", status);
+        item.put("bestIndex", bestIndex);
+        if (!"OPTIMAL".equals(status)) {
+            List<String> suggested = new ArrayList<>(equalityColumns);
+            suggested.add(TIME_COLUMN);
+            item.put("suggestion", "ALTER TABLE crm_audit_log ADD INDEX idx_" + String.join("_", suggested)
+                    + " (" + String.join(", ", suggested) + ")");
+        }
+    }
+
+    private Map<String, List<String>> loadIndexes() {
+        Map<String, List<String>> indexes = new LinkedHashMap<>();
+        try {
+            for (IndexColumn column : auditLogMapper.selectIndexColumns()) {
+                indexes.computeIfAbsent(column.getIndexName(), key -> new ArrayList<>()).add(column.getColumnName());
+            }
+        } catch (Exception e) {
+            log.warn("读取审计日志表索引信息失败", e);
+        }
+        return indexes;
+    }
+
+    /**
+     * 单个查询形态的统计
+     */
+    private static final class ShapeStats {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    }
+}
@@ -0,0 +1,36 @@
+package com.crm.system.modules.audit.advisor;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 审计日志查询索引顾问端点
+ *
+ * <p>GET /actuator/auditadvisor 查看报告，DELETE 清空统计</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Component
+@Endpoint(id = "auditadvisor")
+@RequiredArgsConstructor
+public class AuditQueryAdvisorEndpoint {
+
+    private final AuditQueryAdvisor auditQueryAdvisor;
+
+    @ReadOperation
+    public List<Map<String, Object>> report() {
+        return auditQueryAdvisor.report();
+    }
+
+    @DeleteOperation
+    public void reset() {
+        auditQueryAdvisor.reset();
+    }
+}
@@ -0,0 +1,28 @@
+package com.crm.system.modules.audit.advisor;
+
+import lombok.Data;
+
+/**
+ * 索引列信息（来自 information_schema.STATISTICS）
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Data
+public class IndexColumn {
+
+    /**
+     * 索引名
+     */
+    private String indexName;
+
+    /**
+     * 列名
+     */
+    private String columnName;
+
+    /**
+     * 列在索引中的位置（从1开始）
+     */
+    private Integer seqInIndex;
+}
@@ -59,6 +59,7 @@ public @interface AuditLog {
     /**
      * 是否获取变更前数据
      * <p>对于UPDATE和DELETE操作，需要获取变更前的数据</p>
+     * <p>变更前数据取自业务方法执行期间按 businessIdParam 加载的实体，不会额外查询数据库</p>
      *
      * @return 是否获取变更前数据
      */
@@ -0,0 +1,98 @@
+package com.crm.system.modules.audit.archive;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 归档文件数据块索引（页脚中每个数据块一条）
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+final class ArchiveBlockIndex {
+
+    long offset;
+    int rowCount;
+    long minOperateTime = Long.MAX_VALUE;
+    long maxOperateTime = Long.MIN_VALUE;
+    long minBusinessId = Long.MAX_VALUE;
+    long maxBusinessId = Long.MIN_VALUE;
+    final Set<String> moduleNames = new LinkedHashSet<>();
+    final int[] compressedLengths;
+    final int[] rawLengths;
+
+    /**
+     * 创建块索引
+     *
+     * @param columnCount 数据块中的列数（以文件头为准）
+     */
+    ArchiveBlockIndex(int columnCount) {
+        this.compressedLengths = new int[columnCount];
+        this.rawLengths = new int[columnCount];
+    }
+
+    /**
+     * 判断数据块是否可能包含满足条件的行
+     *
+     * @param moduleName 模块名（null表示不限）
+     * @param businessId 业务ID（null表示不限）
+     * @param fromSecond 操作时间下界（含）
+     * @param toSecond   操作时间上界（含）
+     * @return 是否需要读取该数据块
+     */
+    boolean mayContain(String moduleName, Long businessId, long fromSecond, long toSecond) {
+        if (maxOperateTime < fromSecond || minOperateTime > toSecond) {
+            return false;
+        }
+        if (businessId != null && (businessId < minBusinessId || businessId > maxBusinessId)) {
+            return false;
+        }
+        return moduleName == null || moduleNames.contains(moduleName);
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeLong(offset);
+        out.writeInt(rowCount);
+        out.writeLong(minOperateTime);
+        out.writeLong(maxOperateTime);
+        out.writeLong(minBusinessId);
+        out.writeLong(maxBusinessId);
+        out.writeInt(moduleNames.size());
+        for (String moduleName : moduleNames) {
+            AuditArchiveFormat.writeString(out, moduleName);
+        }
+        for (int i = 0; i < compressedLengths.length; i++) {
+            out.writeInt(compressedLengths[i]);
+            out.writeInt(rawLengths[i]);
+        }
+    }
+
+    /**
+     * 读取一条块索引
+     *
+     * @param in          页脚输入
+     * @param columnCount 文件头记录的列数
+     * @return 块索引
+     */
+    static ArchiveBlockIndex read(DataInput in, int columnCount) throws IOException {
+        ArchiveBlockIndex index = new ArchiveBlockIndex(columnCount);
+        index.offset = in.readLong();
+        index.rowCount = in.readInt();
+        index.minOperateTime = in.readLong();
+        index.maxOperateTime = in.readLong();
+        index.minBusinessId = in.readLong();
+        index.maxBusinessId = in.readLong();
+        int moduleCount = in.readInt();
+        for (int i = 0; i < moduleCount; i++) {
+            index.moduleNames.add(AuditArchiveFormat.readString(in));
+        }
+        for (int i = 0; i < index.compressedLengths.length; i++) {
+            index.compressedLengths[i] = in.readInt();
+            index.rawLengths[i] = in.readInt();
+        }
+        return index;
+    }
+}
@@ -0,0 +1,162 @@
+package com.crm.system.modules.audit.archive;
+
+import com.crm.system.modules.audit.domain.AuditLog;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 审计日志归档文件格式
+ *
+ * <p>列式分块格式，每个文件对应一个已过期的月分区：</p>
+ * <pre>
+ * [文件头] magic(int) version(short) columnCount(short) upperBoundEpochDay(long)
+ * [数据块]* 每块最多 BLOCK_ROWS 行，块内按列依次存放各列的 Deflate 压缩数据
+ * [页脚]   块数(int)，每块：偏移、行数、operate_time/business_id 的最小最大值、模块名集合、各列压缩前后长度
+ * [文件尾] 页脚偏移(long) magic(int)
+ * </pre>
+ *
+ * <p>同一列的数据连续存放，重复度高（模块名、操作类型、JSON字段名等），压缩率远高于按行压缩；
+ * 查询时先用页脚中的块索引排除不相关的数据块，只解压命中的块。</p>
+ *
+ * <p>文件头记录写入时的列数，页脚和数据块按该列数解析：旧文件缺少的新列读取为空，
+ * 新文件多出的列跳过。版本 1 的文件头没有列数，固定为 {@link #V1_COLUMN_COUNT} 列。</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+final class AuditArchiveFormat {
+
+    static final int MAGIC = 0x43524D41;
+    static final short VERSION = 2;
+    static final short V1_COLUMN_COUNT = 20;
+    static final int BLOCK_ROWS = 4096;
+    static final int TRAILER_BYTES = 12;
+
+    /**
+     * 空值占位（时间列、数值列）
+     */
+    private static final long NULL_LONG = Long.MIN_VALUE;
+
+    /**
+     * 列定义（顺序即文件中的列顺序，只能在末尾追加）
+     */
+    static final List<Column> COLUMNS = Collections.unmodifiableList(Arrays.asList(
+            new Column((out, log) -> writeLong(out, log.getId()), (in, log) -> log.setId(readLong(in))),
+            new Column((out, log) -> writeString(out, log.getModuleName()), (in, log) -> log.setModuleName(readString(in))),
+            new Column((out, log) -> writeString(out, log.getOperationType()), (in, log) -> log.setOperationType(readString(in))),
+            new Column((out, log) -> writeLong(out, log.getBusinessId()), (in, log) -> log.setBusinessId(readLong(in))),
+            new Column((out, log) -> writeLong(out, log.getOperatorId()), (in, log) -> log.setOperatorId(readLong(in))),
+            new Column((out, log) -> writeString(out, log.getOperatorName()), (in, log) -> log.setOperatorName(readString(in))),
+            new Column((out, log) -> writeTime(out, log.getOperateTime()), (in, log) -> log.setOperateTime(readTime(in))),
+            new Column((out, log) -> writeString(out, log.getBeforeData()), (in, log) -> log.setBeforeData(readString(in))),
+            new Column((out, log) -> writeString(out, log.getAfterData()), (in, log) -> log.setAfterData(readString(in))),
+            new Column((out, log) -> writeString(out, log.getChangedFields()), (in, log) -> log.setChangedFields(readString(in))),
+            new Column((out, log) -> writeString(out, log.getStorageMode()), (in, log) -> log.setStorageMode(readString(in))),
+            new Column((out, log) -> writeString(out, log.getDeltaData()), (in, log) -> log.setDeltaData(readString(in))),
+            new Column((out, log) -> writeInt(out, log.getReportStatus()), (in, log) -> log.setReportStatus(readInt(in))),
+            new Column((out, log) -> writeString(out, log.getFailReason()), (in, log) -> log.setFailReason(readString(in))),
+            new Column((out, log) -> writeInt(out, log.getRetryCount()), (in, log) -> log.setRetryCount(readInt(in))),
+            new Column((out, log) -> writeTime(out, log.getLastReportTime()), (in, log) -> log.setLastReportTime(readTime(in))),
+            new Column((out, log) -> writeString(out, log.getClientIp()), (in, log) -> log.setClientIp(readString(in))),
+            new Column((out, log) -> writeString(out, log.getTraceId()), (in, log) -> log.setTraceId(readString(in))),
+            new Column((out, log) -> writeTime(out, log.getCreateTime()), (in, log) -> log.setCreateTime(readTime(in))),
+            new Column((out, log) -> writeTime(out, log.getUpdateTime()), (in, log) -> log.setUpdateTime(readTime(in)))
+    ));
+
+    private AuditArchiveFormat() {
+    }
+
+    static long toEpochSecond(LocalDateTime time) {
+        return time == null ? NULL_LONG : time.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    static LocalDateTime fromEpochSecond(long value) {
+        return value == NULL_LONG ? null : LocalDateTime.ofEpochSecond(value, 0, ZoneOffset.UTC);
+    }
+
+    private static void writeLong(DataOutput out, Long value) throws IOException {
+        out.writeLong(value == null ? NULL_LONG : value);
+    }
+
+    private static Long readLong(DataInput in) throws IOException {
+        long value = in.readLong();
+        return value == NULL_LONG ? null : value;
+    }
+
+    private static void writeInt(DataOutput out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    private static Integer readInt(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    private static void writeTime(DataOutput out, LocalDateTime value) throws IOException {
+        out.writeLong(toEpochSecond(value));
+    }
+
+    private static LocalDateTime readTime(DataInput in) throws IOException {
+        return fromEpochSecond(in.readLong());
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 列编码器
+     */
+    @FunctionalInterface
+    interface ColumnWriter {
+        void write(DataOutput out, AuditLog auditLog) throws IOException;
+    }
+
+    /**
+     * 列解码器
+     */
+    @FunctionalInterface
+    interface ColumnReader {
+        void read(DataInput in, AuditLog auditLog) throws IOException;
+    }
+
+    /**
+     * 列定义
+     */
+    static final class Column {
+
+        final ColumnWriter writer;
+        final ColumnReader reader;
+
+        Column(ColumnWriter writer, ColumnReader reader) {
+            this.writer = writer;
+            this.reader = reader;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.crm.system.modules.audit.archive;
+
+import com.crm.system.modules.audit.domain.AuditLog;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * 审计日志归档文件读取器
+ *
+ * <p>打开时只读取文件头和页脚（块索引），数据块按需读取并解压</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+final class AuditArchiveReader {
+
+    private final Path file;
+    private final LocalDate upperBound;
+    private final List<ArchiveBlockIndex> blocks;
+
+    private AuditArchiveReader(Path file, LocalDate upperBound, List<ArchiveBlockIndex> blocks) {
+        this.file = file;
+        this.upperBound = upperBound;
+        this.blocks = blocks;
+    }
+
+    static AuditArchiveReader open(Path file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            if (raf.readInt() != AuditArchiveFormat.MAGIC) {
+                throw new IOException("不是审计归档文件: " + file);
+            }
+            short version = raf.readShort();
+            int columnCount;
+            if (version == 1) {
+                columnCount = AuditArchiveFormat.V1_COLUMN_COUNT;
+            } else if (version == AuditArchiveFormat.VERSION) {
+                columnCount = raf.readShort();
+            } else {
+                throw new IOException("不支持的审计归档文件版本: " + version);
+            }
+            LocalDate upperBound = LocalDate.ofEpochDay(raf.readLong());
+
+            raf.seek(raf.length() - AuditArchiveFormat.TRAILER_BYTES);
+            long footerOffset = raf.readLong();
+            if (raf.readInt() != AuditArchiveFormat.MAGIC) {
+                throw new IOException("审计归档文件不完整: " + file);
+            }
+
+            byte[] footer = new byte[(int) (raf.length() - AuditArchiveFormat.TRAILER_BYTES - footerOffset)];
+            raf.seek(footerOffset);
+            raf.readFully(footer);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(footer));
+            int blockCount = in.readInt();
+            List<ArchiveBlockIndex> blocks = new ArrayList<>(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                blocks.add(ArchiveBlockIndex.read(in, columnCount));
+            }
+            return new AuditArchiveReader(file, upperBound, Collections.unmodifiableList(blocks));
+        }
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    /**
+     * 文件覆盖的操作时间上界（不含）
+     */
+    LocalDate getUpperBound() {
+        return upperBound;
+    }
+
+    List<ArchiveBlockIndex> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * 读取并解码一个数据块
+     *
+     * @param raf   已打开的归档文件
+     * @param block 数据块索引
+     * @return 数据块中的全部行
+     */
+    List<AuditLog> readBlock(RandomAccessFile raf, ArchiveBlockIndex block) throws IOException {
+        List<AuditLog> rows = new ArrayList<>(block.rowCount);
+        for (int i = 0; i < block.rowCount; i++) {
+            rows.add(new AuditLog());
+        }
+
+        raf.seek(block.offset);
+        Inflater inflater = new Inflater();
+        try {
+            // 只解码文件和当前代码都有的列：文件缺少的列保持为空，文件多出的列位于块末尾，无需读取
+            int columnCount = Math.min(block.compressedLengths.length, AuditArchiveFormat.COLUMNS.size());
+            for (int c = 0; c < columnCount; c++) {
+                byte[] compressed = new byte[block.compressedLengths[c]];
+                raf.readFully(compressed);
+                byte[] raw = new byte[block.rawLengths[c]];
+                inflater.reset();
+                inflater.setInput(compressed);
+                if (inflater.inflate(raw) != raw.length) {
+                    throw new IOException("审计归档数据块损坏: " + file + "@" + block.offset);
+                }
+
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+                AuditArchiveFormat.ColumnReader reader = AuditArchiveFormat.COLUMNS.get(c).reader;
+                for (AuditLog row : rows) {
+                    reader.read(in, row);
+                }
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("审计归档数据块解压失败: " + file + "@" + block.offset, e);
+        } finally {
+            inflater.end();
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,258 @@
+package com.crm.system.modules.audit.archive;
+
+import com.crm.system.modules.audit.domain.AuditLog;
+import com.crm.system.modules.audit.dto.AuditQueryRequest;
+import com.crm.system.modules.audit.mapper.AuditLogMapper;
+import com.crm.system.modules.audit.retention.AuditPartition;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 审计日志冷数据归档存储
+ *
+ * <p>过期分区在删除前整体导出为本地列式归档文件（每个分区一个文件），
+ * 查询超出数据库保留范围的时间段时，由本类从归档文件中读取。</p>
+ *
+ * <p>水位线：已归档分区的最大上界。数据库中只保留水位线之后的数据，
+ * 早于水位线的数据只存在于归档文件中。</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditArchiveStore {
+
+    private static final String FILE_PREFIX = "audit-";
+    private static final String FILE_SUFFIX = ".aca";
+
+    @Value("${audit.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.archive.dir:data/audit-archive}")
+    private String archiveDir;
+
+    private final AuditLogMapper auditLogMapper;
+
+    private final Map<Path, AuditArchiveReader> readers = new ConcurrentHashMap<>();
+    private Path directory;
+    private volatile LocalDate watermark;
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        this.directory = Paths.get(archiveDir);
+        Files.createDirectories(directory);
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : stream) {
+                try {
+                    register(AuditArchiveReader.open(file));
+                } catch (IOException e) {
+                    log.error("审计归档文件无法打开，已跳过: {}", file, e);
+                }
+            }
+        }
+        log.info("审计日志归档已加载，目录: {}, 文件数: {}, 水位线: {}",
+                directory.toAbsolutePath(), readers.size(), watermark);
+    }
+
+    /**
+     * 是否启用归档
+     *
+     * @return 是否启用
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 获取归档水位线
+     *
+     * @return 早于该时间的数据只存在于归档中，没有归档时返回null
+     */
+    public LocalDateTime getWatermark() {
+        LocalDate current = watermark;
+        return current != null ? current.atStartOfDay() : null;
+    }
+
+    /**
+     * 将分区数据流式导出为归档文件
+     *
+     * <p>先写临时文件并刷盘，再原子重命名；重复归档同一分区时覆盖原文件</p>
+     *
+     * @param partition 分区
+     * @return 归档的行数
+     * @throws IOException 写文件失败
+     */
+    public long archivePartition(AuditPartition partition) throws IOException {
+        Path target = directory.resolve(FILE_PREFIX + partition.getName() + FILE_SUFFIX);
+        Path tmp = directory.resolve(target.getFileName() + ".tmp");
+        long start = System.currentTimeMillis();
+
+        long rows;
+        IOException[] failure = {null};
+        try (AuditArchiveWriter writer = new AuditArchiveWriter(tmp, partition.getUpperBound())) {
+            auditLogMapper.selectByPartition(partition.getName(), context -> {
+                try {
+                    writer.append(context.getResultObject());
+                } catch (IOException e) {
+                    // MyBatis 会把处理器抛出的异常包装为系统异常，因此只记录不抛出
+                    failure[0] = e;
+                    context.stop();
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            writer.finish();
+            rows = writer.getRowCount();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        register(AuditArchiveReader.open(target));
+        log.info("审计日志分区已归档: {}，行数: {}，文件大小: {} 字节，耗时: {}ms",
+                partition.getName(), rows, Files.size(target), System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    /**
+     * 从归档中查询审计日志
+     *
+     * <p>逐块扫描时只计数，并用大小为 offset+limit 的有界堆保留排序靠前的记录，
+     * 内存占用与页深度相关，而与匹配总数无关</p>
+     *
+     * @param request   查询条件
+     * @param before    操作时间上界（不含），通常为水位线
+     * @param ascending 是否按操作时间升序
+     * @param offset    偏移量
+     * @param limit     条数
+     * @return 查询结果
+     */
+    public ArchiveQueryResult query(AuditQueryRequest request, LocalDateTime before,
+                                    boolean ascending, long offset, int limit) {
+        long fromSecond = request.getOperateTimeStart() != null
+                ? AuditArchiveFormat.toEpochSecond(request.getOperateTimeStart()) : Long.MIN_VALUE + 1;
+        long toSecond = AuditArchiveFormat.toEpochSecond(before) - 1;
+        if (request.getOperateTimeEnd() != null) {
+            toSecond = Math.min(toSecond, AuditArchiveFormat.toEpochSecond(request.getOperateTimeEnd()));
+        }
+
+        Comparator<AuditLog> order = Comparator.comparing(AuditLog::getOperateTime)
+                .thenComparing(AuditLog::getId);
+        Comparator<AuditLog> pageOrder = ascending ? order : order.reversed();
+        int keep = (int) Math.min(Integer.MAX_VALUE - 1L, offset + limit);
+        // 堆顶是已保留记录中排序最靠后的一条，新记录更靠前时替换它
+        PriorityQueue<AuditLog> top = new PriorityQueue<>(Math.max(1, Math.min(keep, 1024)), pageOrder.reversed());
+        long total = 0;
+
+        for (AuditArchiveReader reader : readers.values()) {
+            try (RandomAccessFile raf = new RandomAccessFile(reader.getFile().toFile(), "r")) {
+                for (ArchiveBlockIndex block : reader.getBlocks()) {
+                    if (!block.mayContain(request.getModuleName(), request.getBusinessId(), fromSecond, toSecond)) {
+                        continue;
+                    }
+                    for (AuditLog row : reader.readBlock(raf, block)) {
+                        if (!matches(row, request, fromSecond, toSecond)) {
+                            continue;
+                        }
+                        total++;
+                        if (top.size() < keep) {
+                            top.offer(row);
+                        } else if (keep > 0 && pageOrder.compare(row, top.peek()) < 0) {
+                            top.poll();
+                            top.offer(row);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                log.error("读取审计归档文件失败: {}", reader.getFile(), e);
+            }
+        }
+
+        List<AuditLog> kept = new ArrayList<>(top);
+        kept.sort(pageOrder);
+        int from = (int) Math.min(offset, kept.size());
+        int to = Math.min(from + limit, kept.size());
+        return new ArchiveQueryResult(total, new ArrayList<>(kept.subList(from, to)));
+    }
+
+    private static boolean matches(AuditLog row, AuditQueryRequest request, long fromSecond, long toSecond) {
+        long operateTime = AuditArchiveFormat.toEpochSecond(row.getOperateTime());
+        if (operateTime < fromSecond || operateTime > toSecond) {
+            return false;
+        }
+        if (request.getModuleName() != null && !request.getModuleName().equals(row.getModuleName())) {
+            return false;
+        }
+        if (request.getOperationType() != null && !request.getOperationType().equals(row.getOperationType())) {
+            return false;
+        }
+        if (request.getBusinessId() != null && !request.getBusinessId().equals(row.getBusinessId())) {
+            return false;
+        }
+        if (request.getOperatorId() != null && !request.getOperatorId().equals(row.getOperatorId())) {
+            return false;
+        }
+        if (request.getOperatorName() != null
+                && (row.getOperatorName() == null || !row.getOperatorName().contains(request.getOperatorName()))) {
+            return false;
+        }
+        return request.getReportStatus() == null || request.getReportStatus().equals(row.getReportStatus());
+    }
+
+    private synchronized void register(AuditArchiveReader reader) {
+        readers.put(reader.getFile(), reader);
+        LocalDate current = watermark;
+        if (current == null || reader.getUpperBound().isAfter(current)) {
+            watermark = reader.getUpperBound();
+        }
+    }
+
+    /**
+     * 归档查询结果
+     */
+    public static final class ArchiveQueryResult {
+
+        private final long total;
+        private final List<AuditLog> records;
+
+        private ArchiveQueryResult(long total, List<AuditLog> records) {
+            this.total = total;
+            this.records = records;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public List<AuditLog> getRecords() {
+            return records;
+        }
+    }
+}
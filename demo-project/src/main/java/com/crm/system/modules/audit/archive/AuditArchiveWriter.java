@@ -0,0 +1,130 @@
+package com.crm.system.modules.audit.archive;
+
+import com.crm.system.modules.audit.domain.AuditLog;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * 审计日志归档文件写入器
+ *
+ * <p>按行追加，攒满一个数据块后按列编码压缩写出；{@link #finish()} 写出页脚并刷盘</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+final class AuditArchiveWriter implements Closeable {
+
+    private final FileOutputStream fileOut;
+    private final DataOutputStream out;
+    private final List<AuditLog> pending = new ArrayList<>(AuditArchiveFormat.BLOCK_ROWS);
+    private final List<ArchiveBlockIndex> blocks = new ArrayList<>();
+    private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+    private final byte[] deflateBuffer = new byte[64 * 1024];
+    private long position;
+    private long rowCount;
+
+    AuditArchiveWriter(Path file, LocalDate upperBound) throws IOException {
+        this.fileOut = new FileOutputStream(file.toFile());
+        this.out = new DataOutputStream(new BufferedOutputStream(fileOut, 256 * 1024));
+        out.writeInt(AuditArchiveFormat.MAGIC);
+        out.writeShort(AuditArchiveFormat.VERSION);
+        out.writeShort(AuditArchiveFormat.COLUMNS.size());
+        out.writeLong(upperBound.toEpochDay());
+        position = 4 + 2 + 2 + 8;
+    }
+
+    void append(AuditLog auditLog) throws IOException {
+        pending.add(auditLog);
+        rowCount++;
+        if (pending.size() >= AuditArchiveFormat.BLOCK_ROWS) {
+            writeBlock();
+        }
+    }
+
+    long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 写出剩余数据、页脚，并刷盘
+     */
+    void finish() throws IOException {
+        if (!pending.isEmpty()) {
+            writeBlock();
+        }
+
+        long footerOffset = position;
+        out.writeInt(blocks.size());
+        for (ArchiveBlockIndex block : blocks) {
+            block.write(out);
+        }
+        out.writeLong(footerOffset);
+        out.writeInt(AuditArchiveFormat.MAGIC);
+        out.flush();
+        fileOut.getFD().sync();
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        out.close();
+    }
+
+    private void writeBlock() throws IOException {
+        ArchiveBlockIndex index = new ArchiveBlockIndex(AuditArchiveFormat.COLUMNS.size());
+        index.offset = position;
+        index.rowCount = pending.size();
+        for (AuditLog auditLog : pending) {
+            long operateTime = AuditArchiveFormat.toEpochSecond(auditLog.getOperateTime());
+            index.minOperateTime = Math.min(index.minOperateTime, operateTime);
+            index.maxOperateTime = Math.max(index.maxOperateTime, operateTime);
+            if (auditLog.getBusinessId() != null) {
+                index.minBusinessId = Math.min(index.minBusinessId, auditLog.getBusinessId());
+                index.maxBusinessId = Math.max(index.maxBusinessId, auditLog.getBusinessId());
+            }
+            if (auditLog.getModuleName() != null) {
+                index.moduleNames.add(auditLog.getModuleName());
+            }
+        }
+
+        ByteArrayOutputStream raw = new ByteArrayOutputStream(64 * 1024);
+        for (int c = 0; c < AuditArchiveFormat.COLUMNS.size(); c++) {
+            raw.reset();
+            DataOutputStream columnOut = new DataOutputStream(raw);
+            AuditArchiveFormat.ColumnWriter writer = AuditArchiveFormat.COLUMNS.get(c).writer;
+            for (AuditLog auditLog : pending) {
+                writer.write(columnOut, auditLog);
+            }
+            columnOut.flush();
+            index.rawLengths[c] = raw.size();
+            index.compressedLengths[c] = deflate(raw.toByteArray());
+        }
+
+        blocks.add(index);
+        pending.clear();
+    }
+
+    private int deflate(byte[] input) throws IOException {
+        deflater.reset();
+        deflater.setInput(input);
+        deflater.finish();
+        int total = 0;
+        while (!deflater.finished()) {
+            int n = deflater.deflate(deflateBuffer);
+            out.write(deflateBuffer, 0, n);
+            total += n;
+        }
+        position += total;
+        return total;
+    }
+}
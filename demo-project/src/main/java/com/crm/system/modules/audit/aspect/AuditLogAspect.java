@@ -1,8 +1,10 @@
 package com.crm.system.modules.audit.aspect;
 
 import com.crm.system.modules.audit.annotation.AuditLog;
+import com.crm.system.modules.audit.capture.BeforeImageContext;
 import com.crm.system.modules.audit.event.AuditEvent;
 import com.crm.system.modules.audit.util.SecurityUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -12,7 +14,9 @@ import org.aspectj.lang.reflect.MethodSignature;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
+import java.time.LocalDateTime;
 
 /**
  * 审计日志AOP切面
@@ -30,6 +34,8 @@ public class AuditLogAspect {
 
     private final ApplicationEventPublisher eventPublisher;
     private final SecurityUtils securityUtils;
+    private final BusinessIdExtractor businessIdExtractor;
+    private final ObjectMapper objectMapper;
 
     /**
      * 环绕通知：拦截带有@AuditLog注解的方法
@@ -42,6 +48,7 @@ public class AuditLogAspect {
     @Around("@annotation(auditLog)")
     public Object around(ProceedingJoinPoint joinPoint, AuditLog auditLog) throws Throwable {
         long startTime = System.currentTimeMillis();
+        LocalDateTime operateTime = LocalDateTime.now();
 
         // 获取方法签名
         MethodSignature signature = (MethodSignature) joinPoint.getSignature();
@@ -49,33 +56,43 @@ public class AuditLogAspect {
 
         log.debug("审计切面拦截方法: {}.{}", method.getDeclaringClass().getSimpleName(), method.getName());
 
-        // 获取变更前数据（UPDATE/DELETE操作）
-        Object beforeData = null;
+        // UPDATE/DELETE操作：打开前镜像捕获范围，由业务方法自身的查询顺带捕获变更前数据
+        BeforeImageContext.Scope captureScope = null;
         if (auditLog.fetchBeforeData() && isUpdateOrDelete(auditLog)) {
-            beforeData = fetchBeforeData(joinPoint, auditLog);
+            Object businessIdArg = businessIdExtractor.getArgument(method, auditLog, joinPoint.getArgs());
+            captureScope = BeforeImageContext.open(businessIdArg);
         }
 
         // 执行业务方法
-        Object result = joinPoint.proceed();
+        Object result;
+        Object beforeData;
+        try {
+            result = joinPoint.proceed();
+            beforeData = fetchBeforeData(captureScope);
+        } finally {
+            if (captureScope != null) {
+                captureScope.close();
+            }
+        }
 
         // 获取变更后数据
         Object afterData = fetchAfterData(result);
 
         // 获取业务ID
-        Long businessId = getBusinessId(joinPoint, auditLog, result);
-
-        // 获取操作人信息
-        AuditEvent.OperatorInfo operator = securityUtils.getCurrentOperator();
+        Long businessId = businessIdExtractor.extract(method, auditLog, joinPoint.getArgs(), result);
+        if (businessId == null) {
+            log.warn("无法获取业务ID: {}.{}", method.getDeclaringClass().getSimpleName(), method.getName());
+        }
 
-        // 构建审计事件
+        // 构建审计事件：只复制请求中的原始信息，操作人和IP的解析在异步监听器中完成
         AuditEvent event = AuditEvent.builder()
                 .moduleName(auditLog.moduleName())
                 .operationType(auditLog.operationType())
                 .businessId(businessId)
-                .operator(operator)
+                .operateTime(operateTime)
                 .beforeData(beforeData)
                 .afterData(afterData)
-                .request(securityUtils.getCurrentRequest())
+                .requestSnapshot(securityUtils.captureRequest())
                 .build();
 
         // 发布审计事件（异步处理）
@@ -100,63 +117,41 @@ public class AuditLogAspect {
 
     /**
      * 获取变更前数据
-     * <p>这里需要根据具体的业务实现来查询原始数据</p>
+     * <p>业务方法执行期间加载的实体副本，业务方法未加载该实体时返回null</p>
      *
-     * @param joinPoint 连接点
-     * @param auditLog   审计注解
+     * @param captureScope 前镜像捕获范围
      * @return 变更前数据
      */
-    private Object fetchBeforeData(ProceedingJoinPoint joinPoint, AuditLog auditLog) {
-        // TODO: 根据业务ID查询原始数据
-        // 这里可以通过注入Mapper来查询数据库
-        // 例如：customerMapper.selectById(id)
-        return null;
+    private Object fetchBeforeData(BeforeImageContext.Scope captureScope) {
+        if (captureScope == null) {
+            return null;
+        }
+        Object snapshot = captureScope.getSnapshot();
+        if (snapshot == null) {
+            log.debug("业务方法执行期间未加载目标实体，变更前数据为空");
+        }
+        return snapshot;
     }
 
     /**
      * 获取变更后数据
      *
+     * <p>通常方法执行结果就是变更后的数据。结果返回后仍可能被调用方修改（或本身是缓存中的共享对象），
+     * 而序列化和差异计算在流水线线程中稍后进行，因此按 JSON 往返复制一份同类型的深拷贝；
+     * 无法反序列化的类型（如没有默认构造器）退回使用原对象</p>
+     *
      * @param result 方法执行结果
      * @return 变更后数据
      */
     private Object fetchAfterData(Object result) {
-        // 通常方法执行结果就是变更后的数据
-        return result;
-    }
-
-    /**
-     * 从方法参数或返回值中获取业务ID
-     *
-     * @param joinPoint 连接点
-     * @param auditLog   审计注解
-     * @param result     方法执行结果
-     * @return 业务ID
-     */
-    private Long getBusinessId(ProceedingJoinPoint joinPoint, AuditLog auditLog, Object result) {
-        // 尝试从返回值中获取ID
-        if (result != null) {
-            try {
-                // 使用反射获取getId()方法
-                Method getIdMethod = result.getClass().getMethod("getId");
-                Object id = getIdMethod.invoke(result);
-                if (id instanceof Long) {
-                    return (Long) id;
-                }
-            } catch (Exception e) {
-                log.debug("无法从返回值中获取ID", e);
-            }
+        if (result == null) {
+            return null;
         }
-
-        // 尝试从方法参数中获取ID
-        Object[] args = joinPoint.getArgs();
-        if (args.length > 0) {
-            // 通常第一个参数就是ID（对于UPDATE和DELETE操作）
-            if (args[0] instanceof Long) {
-                return (Long) args[0];
-            }
+        try {
+            return objectMapper.readValue(objectMapper.writeValueAsBytes(result), result.getClass());
+        } catch (IOException e) {
+            log.debug("变更后数据无法复制，使用原对象: {}", result.getClass().getName(), e);
+            return result;
         }
-
-        log.warn("无法获取业务ID");
-        return null;
     }
 }
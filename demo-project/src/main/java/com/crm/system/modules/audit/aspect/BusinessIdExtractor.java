@@ -0,0 +1,137 @@
+package com.crm.system.modules.audit.aspect;
+
+import com.crm.system.modules.audit.annotation.AuditLog;
+import com.crm.system.modules.audit.util.PropertyAccessors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 业务ID提取器
+ *
+ * <p>每个审计方法首次调用时解析一次提取方案并缓存：</p>
+ * <ul>
+ *   <li>参数路径：按 businessIdParam 参数名定位参数下标；编译时未保留参数名时，取第一个 Long 类型参数</li>
+ *   <li>返回值路径：按返回值的实际类型缓存 id 属性的预编译读取器</li>
+ * </ul>
+ * <p>之后每次调用只是数组取值和一次函数调用，不再有反射查找和异常控制流。</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class BusinessIdExtractor {
+
+    /**
+     * 返回值中的业务ID属性名
+     */
+    private static final String RESULT_ID_PROPERTY = "id";
+
+    /**
+     * 返回值类型没有 id 属性时的占位读取器
+     */
+    private static final Function<Object, Object> NO_ID = result -> null;
+
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    private final Map<Method, Plan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * 从方法参数中取出业务ID参数的原始值
+     *
+     * @param method   审计方法
+     * @param auditLog 审计注解
+     * @param args     方法参数
+     * @return 参数值，方法没有对应参数时返回null
+     */
+    public Object getArgument(Method method, AuditLog auditLog, Object[] args) {
+        int index = plan(method, auditLog).argumentIndex;
+        return index >= 0 && index < args.length ? args[index] : null;
+    }
+
+    /**
+     * 提取业务ID：优先取返回值的 id 属性，其次取 businessIdParam 参数
+     *
+     * @param method   审计方法
+     * @param auditLog 审计注解
+     * @param args     方法参数
+     * @param result   方法执行结果
+     * @return 业务ID，无法提取时返回null
+     */
+    public Long extract(Method method, AuditLog auditLog, Object[] args, Object result) {
+        Plan plan = plan(method, auditLog);
+
+        if (result != null) {
+            Function<Object, Object> getter = plan.resultGetters.computeIfAbsent(result.getClass(), type -> {
+                Function<Object, Object> compiled = PropertyAccessors.getter(type, RESULT_ID_PROPERTY);
+                return compiled != null ? compiled : NO_ID;
+            });
+            Long id = toLong(getter.apply(result));
+            if (id != null) {
+                return id;
+            }
+        }
+
+        if (plan.argumentIndex >= 0 && plan.argumentIndex < args.length) {
+            return toLong(args[plan.argumentIndex]);
+        }
+        return null;
+    }
+
+    private Plan plan(Method method, AuditLog auditLog) {
+        return plans.computeIfAbsent(method, m -> new Plan(resolveArgumentIndex(m, auditLog.businessIdParam())));
+    }
+
+    private int resolveArgumentIndex(Method method, String businessIdParam) {
+        String[] parameterNames = parameterNameDiscoverer.getParameterNames(method);
+        if (parameterNames != null) {
+            for (int i = 0; i < parameterNames.length; i++) {
+                if (parameterNames[i].equals(businessIdParam)) {
+                    return i;
+                }
+            }
+            log.warn("审计方法 {}.{} 不存在业务ID参数: {}",
+                    method.getDeclaringClass().getSimpleName(), method.getName(), businessIdParam);
+            return -1;
+        }
+
+        // 未保留参数名时，退化为第一个 Long 类型参数
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (parameterTypes[i] == Long.class || parameterTypes[i] == long.class) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Long toLong(Object value) {
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        return null;
+    }
+
+    /**
+     * 单个审计方法的提取方案
+     */
+    private static final class Plan {
+
+        private final int argumentIndex;
+        private final Map<Class<?>, Function<Object, Object>> resultGetters = new ConcurrentHashMap<>(4);
+
+        private Plan(int argumentIndex) {
+            this.argumentIndex = argumentIndex;
+        }
+    }
+}
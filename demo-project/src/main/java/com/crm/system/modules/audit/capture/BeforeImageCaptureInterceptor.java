@@ -0,0 +1,78 @@
+package com.crm.system.modules.audit.capture;
+
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.beans.BeanUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 变更前数据捕获拦截器
+ *
+ * <p>只在审计切面打开捕获范围时生效：业务方法查询到单个实体时，
+ * 立即复制一份作为变更前数据。必须复制，因为业务方法随后会直接修改该实体对象。</p>
+ *
+ * <p>未打开捕获范围时仅多一次 ThreadLocal 读取，对普通查询几乎无开销。</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class,
+                        CacheKey.class, BoundSql.class})
+})
+public class BeforeImageCaptureInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+
+        BeforeImageContext.Scope scope = BeforeImageContext.current();
+        if (scope != null && result instanceof List && ((List<?>) result).size() == 1) {
+            capture(scope, ((List<?>) result).get(0));
+        }
+        return result;
+    }
+
+    private void capture(BeforeImageContext.Scope scope, Object entity) {
+        if (entity == null) {
+            return;
+        }
+        // 只捕获已注册的表实体，忽略 count 等非实体查询结果
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entity.getClass());
+        if (tableInfo == null || !tableInfo.havePK()) {
+            return;
+        }
+
+        Object id = tableInfo.getPropertyValue(entity, tableInfo.getKeyProperty());
+        if (!scope.accepts(id)) {
+            return;
+        }
+
+        try {
+            Object snapshot = BeanUtils.instantiateClass(entity.getClass());
+            BeanUtils.copyProperties(entity, snapshot);
+            scope.capture(snapshot);
+            log.debug("已捕获变更前数据，实体: {}, ID: {}", entity.getClass().getSimpleName(), id);
+        } catch (Exception e) {
+            log.warn("变更前数据复制失败，实体: {}", entity.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.crm.system.modules.audit.capture;
+
+import java.util.Objects;
+
+/**
+ * 变更前数据（前镜像）捕获上下文
+ *
+ * <p>审计切面在执行UPDATE/DELETE业务方法前打开捕获范围，业务方法自身加载实体时，
+ * 由 {@link BeforeImageCaptureInterceptor} 把查询结果的副本登记到当前范围，
+ * 切面无需再额外查询一次数据库。</p>
+ *
+ * <p>捕获范围绑定在当前线程上，支持审计方法嵌套调用：内层范围关闭后恢复外层范围。</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+public final class BeforeImageContext {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private BeforeImageContext() {
+    }
+
+    /**
+     * 打开捕获范围
+     *
+     * @param expectedId 期望捕获的实体主键，为null时捕获第一个加载的实体
+     * @return 新打开的捕获范围
+     */
+    public static Scope open(Object expectedId) {
+        Scope scope = new Scope(expectedId, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * 获取当前线程的捕获范围
+     *
+     * @return 捕获范围，未打开时返回null
+     */
+    static Scope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 捕获范围
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Object expectedId;
+        private final Scope parent;
+        private Object snapshot;
+
+        private Scope(Object expectedId, Scope parent) {
+            this.expectedId = expectedId;
+            this.parent = parent;
+        }
+
+        /**
+         * 是否还需要捕获该主键对应的实体
+         *
+         * @param id 查询结果的主键
+         * @return 是否需要捕获
+         */
+        boolean accepts(Object id) {
+            if (snapshot != null) {
+                return false;
+            }
+            // 主键类型可能不一致（如 Long 与 String），统一按字符串比较
+            return expectedId == null || Objects.equals(String.valueOf(expectedId), String.valueOf(id));
+        }
+
+        void capture(Object entity) {
+            this.snapshot = entity;
+        }
+
+        /**
+         * 获取捕获到的变更前数据
+         *
+         * @return 实体副本，未捕获到时返回null
+         */
+        public Object getSnapshot() {
+            return snapshot;
+        }
+
+        @Override
+        public void close() {
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(parent);
+            }
+        }
+    }
+}
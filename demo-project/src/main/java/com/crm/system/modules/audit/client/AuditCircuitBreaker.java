@@ -0,0 +1,176 @@
+package com.crm.system.modules.audit.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 外部审计系统熔断器
+ *
+ * <p>基于最近 N 次调用的滑动窗口统计失败率（慢调用同样计为失败）：</p>
+ * <ul>
+ *   <li>CLOSED：正常放行，失败率超过阈值后转为 OPEN</li>
+ *   <li>OPEN：直接拒绝，等待 open-duration 后转为 HALF_OPEN</li>
+ *   <li>HALF_OPEN：只放行有限次数的探测调用，全部成功则恢复 CLOSED，任一失败重新 OPEN</li>
+ * </ul>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditCircuitBreaker {
+
+    @Value("${audit.report.circuit-breaker.window-size:20}")
+    private int windowSize;
+
+    @Value("${audit.report.circuit-breaker.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${audit.report.circuit-breaker.failure-rate-threshold:50}")
+    private int failureRateThreshold;
+
+    @Value("${audit.report.circuit-breaker.slow-call-ms:3000}")
+    private long slowCallMs;
+
+    @Value("${audit.report.circuit-breaker.open-duration-ms:30000}")
+    private long openDurationMs;
+
+    @Value("${audit.report.circuit-breaker.half-open-calls:3}")
+    private int halfOpenCalls;
+
+    private final MeterRegistry meterRegistry;
+
+    private State state = State.CLOSED;
+    private boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+    private long openedAt;
+    private int halfOpenPermitted;
+    private int halfOpenSucceeded;
+
+    @PostConstruct
+    public void init() {
+        this.window = new boolean[windowSize];
+        Gauge.builder("audit.report.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("外部审计系统熔断器状态（0-CLOSED，1-OPEN，2-HALF_OPEN）")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 申请一次调用许可
+     *
+     * @return 是否允许调用
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openDurationMs) {
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermitted >= halfOpenCalls) {
+                return false;
+            }
+            halfOpenPermitted++;
+        }
+        return true;
+    }
+
+    /**
+     * 记录一次调用完成（超过慢调用阈值时按失败处理）
+     *
+     * @param elapsedNanos 调用耗时（纳秒）
+     */
+    public void onSuccess(long elapsedNanos) {
+        record(TimeUnit.NANOSECONDS.toMillis(elapsedNanos) > slowCallMs);
+    }
+
+    /**
+     * 记录一次调用失败
+     */
+    public void onFailure() {
+        record(true);
+    }
+
+    /**
+     * 获取当前状态
+     *
+     * @return 熔断器状态
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    private synchronized void record(boolean failed) {
+        if (state == State.HALF_OPEN) {
+            if (failed) {
+                transitionTo(State.OPEN);
+            } else if (++halfOpenSucceeded >= halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // 熔断前已发出的调用，结果不再计入
+            return;
+        }
+
+        if (windowCount == windowSize) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % windowSize;
+
+        if (windowCount >= minimumCalls && windowFailures * 100 >= failureRateThreshold * windowCount) {
+            log.warn("外部审计系统失败率 {}/{} 超过阈值，熔断器打开", windowFailures, windowCount);
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void transitionTo(State newState) {
+        if (state != newState) {
+            log.info("外部审计系统熔断器状态变更: {} -> {}", state, newState);
+        }
+        state = newState;
+        switch (newState) {
+            case OPEN:
+                openedAt = System.currentTimeMillis();
+                break;
+            case HALF_OPEN:
+                halfOpenPermitted = 0;
+                halfOpenSucceeded = 0;
+                break;
+            default:
+                windowIndex = 0;
+                windowCount = 0;
+                windowFailures = 0;
+                break;
+        }
+    }
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
@@ -0,0 +1,127 @@
+package com.crm.system.modules.audit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 外部审计上报自适应并发限制器（AIMD）
+ *
+ * <p>限制同时在途的上报请求数，上限根据观测到的响应延迟自动调整：</p>
+ * <ul>
+ *   <li>延迟低于阈值且并发接近上限时，上限加一（加性增）</li>
+ *   <li>延迟超过阈值或调用失败时，上限按比例收缩（乘性减）</li>
+ * </ul>
+ * <p>超出上限的请求立即拒绝而不是排队等待，由重试调度器稍后重投，
+ * 避免下游变慢时审计线程池被在途请求占满。</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditConcurrencyLimiter {
+
+    @Value("${audit.report.concurrency.initial-limit:5}")
+    private int initialLimit;
+
+    @Value("${audit.report.concurrency.min-limit:1}")
+    private int minLimit;
+
+    @Value("${audit.report.concurrency.max-limit:10}")
+    private int maxLimit;
+
+    @Value("${audit.report.concurrency.latency-threshold-ms:2000}")
+    private long latencyThresholdMs;
+
+    @Value("${audit.report.concurrency.backoff-ratio:0.9}")
+    private double backoffRatio;
+
+    private final MeterRegistry meterRegistry;
+
+    private double limit;
+    private int inflight;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        this.limit = initialLimit;
+        Gauge.builder("audit.report.concurrency.limit", this, AuditConcurrencyLimiter::getLimit)
+                .description("外部审计上报当前并发上限")
+                .register(meterRegistry);
+        Gauge.builder("audit.report.concurrency.inflight", this, AuditConcurrencyLimiter::getInflight)
+                .description("外部审计上报在途请求数")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("audit.report.concurrency.rejected")
+                .description("超出并发上限被拒绝的上报次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 申请一个在途名额
+     *
+     * @return 是否获得名额
+     */
+    public synchronized boolean tryAcquire() {
+        if (inflight >= (int) limit) {
+            rejectedCounter.increment();
+            return false;
+        }
+        inflight++;
+        return true;
+    }
+
+    /**
+     * 调用完成，按延迟调整上限并归还名额
+     *
+     * @param elapsedNanos 调用耗时（纳秒）
+     */
+    public synchronized void onSuccess(long elapsedNanos) {
+        if (TimeUnit.NANOSECONDS.toMillis(elapsedNanos) > latencyThresholdMs) {
+            decrease();
+        } else if (inflight * 2 >= limit) {
+            // 只有并发确实接近上限时才扩容，避免低负载时上限无意义地膨胀
+            limit = Math.min(maxLimit, limit + 1);
+        }
+        inflight--;
+    }
+
+    /**
+     * 调用失败或超时，收缩上限并归还名额
+     */
+    public synchronized void onDropped() {
+        decrease();
+        inflight--;
+    }
+
+    /**
+     * 未发出调用，直接归还名额（不参与上限调整）
+     */
+    public synchronized void release() {
+        inflight--;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInflight() {
+        return inflight;
+    }
+
+    private void decrease() {
+        double newLimit = Math.max(minLimit, limit * backoffRatio);
+        if ((int) newLimit < (int) limit) {
+            log.debug("外部审计上报并发上限下调: {} -> {}", (int) limit, (int) newLimit);
+        }
+        limit = newLimit;
+    }
+}
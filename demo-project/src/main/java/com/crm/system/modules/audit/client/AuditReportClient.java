@@ -3,25 +3,33 @@ package com.crm.system.modules.audit.client;
 import com.crm.system.modules.audit.domain.AuditLog;
 import com.crm.system.modules.audit.dto.AuditReportRequest;
 import com.crm.system.modules.audit.dto.AuditReportResponse;
+import com.crm.system.modules.audit.storage.AuditDeltaStorage;
 import com.crm.system.modules.audit.util.DiffUtils;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
-import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 /**
  * 审计日志上报REST客户端
  *
- * <p>负责调用外部审计系统的REST API接口</p>
+ * <p>负责调用外部审计系统的REST API接口，使用 {@code auditRestTemplate} 连接池化传输</p>
  *
  * @author AI Assistant
  * @since 1.0.0
@@ -39,82 +47,273 @@ public class AuditReportClient {
     @Value("${audit.report.enabled:true}")
     private boolean reportEnabled;
 
-    @Value("${audit.report.connect-timeout:5000}")
-    private int connectTimeout;
+    @Value("${audit.report.batch.url:${audit.report.url:http://localhost:9000/api/audit/logs}/batch}")
+    private String batchReportUrl;
 
-    @Value("${audit.report.read-timeout:10000}")
-    private int readTimeout;
+    @Value("${audit.report.batch.size:100}")
+    private int batchSize;
+
+    @Value("${audit.report.batch.max-bytes:1048576}")
+    private int batchMaxBytes;
 
     private final RestTemplate restTemplate;
-    private final RetryTemplate retryTemplate;
     private final DiffUtils diffUtils;
     private final ObjectMapper objectMapper;
+    private final AuditCircuitBreaker circuitBreaker;
+    private final AuditConcurrencyLimiter concurrencyLimiter;
+    private final AuditDeltaStorage auditDeltaStorage;
 
-    public AuditReportClient(RestTemplate restTemplate,
-                              RetryTemplate retryTemplate,
+    public AuditReportClient(@Qualifier("auditRestTemplate") RestTemplate restTemplate,
                               DiffUtils diffUtils,
-                              ObjectMapper objectMapper) {
+                              ObjectMapper objectMapper,
+                              AuditCircuitBreaker circuitBreaker,
+                              AuditConcurrencyLimiter concurrencyLimiter,
+                              AuditDeltaStorage auditDeltaStorage) {
         this.restTemplate = restTemplate;
-        this.retryTemplate = retryTemplate;
         this.diffUtils = diffUtils;
         this.objectMapper = objectMapper;
+        this.circuitBreaker = circuitBreaker;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.auditDeltaStorage = auditDeltaStorage;
     }
 
     /**
      * 上报审计日志到外部系统
      *
      * @param auditLog 审计日志
-     * @return 是否上报成功
+     * @return 上报结果
      */
-    public boolean report(AuditLog auditLog) {
+    public AuditReportResponse.ItemResult report(AuditLog auditLog) {
         // 检查是否启用上报
         if (!reportEnabled) {
             log.debug("审计上报功能已禁用");
-            return true;
+            return itemSuccess(auditLog.getId(), null);
         }
 
         // 检查API Key
         if (apiKey == null || apiKey.isEmpty()) {
             log.warn("审计上报API Key未配置，跳过上报");
-            return true;
+            return itemSuccess(auditLog.getId(), null);
         }
 
-        return retryTemplate.execute(context -> {
+        // 单次尝试，失败由调用方交给重试调度器延迟重投，不在工作线程中阻塞退避
+        try {
+            // 构建请求
+            AuditReportRequest request = buildRequest(auditLog);
+
+            // 设置请求头
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.set("X-API-Key", apiKey);
+            headers.set("X-Request-ID", auditLog.getTraceId());
+
+            HttpEntity<AuditReportRequest> httpEntity = new HttpEntity<>(request, headers);
+
+            // 发送请求
+            log.debug("上报审计日志到外部系统，URL: {}, 审计ID: {}", reportUrl, auditLog.getId());
+            ResponseEntity<String> response = guardedExchange(reportUrl, httpEntity);
+            if (response == null) {
+                log.debug("外部审计系统熔断或并发已满，本次上报未发送，审计ID: {}", auditLog.getId());
+                return itemRejected(auditLog.getId());
+            }
+
+            // 解析响应
+            if (response.getStatusCode() == HttpStatus.OK) {
+                AuditReportResponse reportResponse = parseResponse(response.getBody());
+                log.info("审计日志上报成功，外部审计ID: {}", reportResponse.getAuditId());
+                return itemSuccess(auditLog.getId(), reportResponse.getAuditId());
+            } else {
+                log.warn("审计日志上报失败，HTTP状态码: {}", response.getStatusCode());
+                return itemFailure(auditLog.getId(), "HTTP状态码: " + response.getStatusCode());
+            }
+        } catch (Exception e) {
+            log.error("审计日志上报异常，审计ID: {}", auditLog.getId(), e);
+            return itemFailure(auditLog.getId(), "上报异常: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 批量上报审计日志到外部系统
+     *
+     * <p>按条数上限和字节上限切分为多个批次，每个批次以JSON数组一次POST，
+     * 并根据响应中的逐条结果判定每条审计日志是否上报成功</p>
+     *
+     * @param auditLogs 审计日志列表
+     * @return 审计日志ID到上报结果的映射
+     */
+    public Map<Long, AuditReportResponse.ItemResult> reportBatch(List<AuditLog> auditLogs) {
+        Map<Long, AuditReportResponse.ItemResult> results = new HashMap<>(auditLogs.size() * 2);
+
+        // 检查是否启用上报
+        if (!reportEnabled || apiKey == null || apiKey.isEmpty()) {
+            log.debug("审计上报功能已禁用或API Key未配置，跳过批量上报");
+            for (AuditLog auditLog : auditLogs) {
+                results.put(auditLog.getId(), itemSuccess(auditLog.getId(), null));
+            }
+            return results;
+        }
+
+        List<Long> chunkIds = new ArrayList<>(batchSize);
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        for (AuditLog auditLog : auditLogs) {
+            byte[] item;
             try {
-                // 构建请求
-                AuditReportRequest request = buildRequest(auditLog);
-
-                // 设置请求头
-                HttpHeaders headers = new HttpHeaders();
-                headers.setContentType(MediaType.APPLICATION_JSON);
-                headers.set("X-API-Key", apiKey);
-                headers.set("X-Request-ID", auditLog.getTraceId());
-
-                HttpEntity<AuditReportRequest> httpEntity = new HttpEntity<>(request, headers);
-
-                // 发送请求
-                log.debug("上报审计日志到外部系统，URL: {}, 审计ID: {}", reportUrl, auditLog.getId());
-                ResponseEntity<String> response = restTemplate.exchange(
-                        reportUrl,
-                        HttpMethod.POST,
-                        httpEntity,
-                        String.class
-                );
-
-                // 解析响应
-                if (response.getStatusCode() == HttpStatus.OK) {
-                    AuditReportResponse reportResponse = parseResponse(response.getBody());
-                    log.info("审计日志上报成功，外部审计ID: {}", reportResponse.getAuditId());
-                    return true;
+                item = objectMapper.writeValueAsBytes(buildRequest(auditLog));
+            } catch (Exception e) {
+                log.error("审计日志序列化失败，审计ID: {}", auditLog.getId(), e);
+                results.put(auditLog.getId(), itemFailure(auditLog.getId(), "序列化失败: " + e.getMessage()));
+                continue;
+            }
+
+            // 超出条数或字节上限时先发送当前批次（单条超限时单独发送）
+            boolean full = chunkIds.size() >= batchSize
+                    || (!chunkIds.isEmpty() && payload.size() + item.length + 2 > batchMaxBytes);
+            if (full) {
+                sendBatch(chunkIds, payload, results);
+                chunkIds = new ArrayList<>(batchSize);
+                payload.reset();
+            }
+
+            payload.write(chunkIds.isEmpty() ? '[' : ',');
+            payload.write(item, 0, item.length);
+            chunkIds.add(auditLog.getId());
+        }
+        if (!chunkIds.isEmpty()) {
+            sendBatch(chunkIds, payload, results);
+        }
+        return results;
+    }
+
+    /**
+     * 发送一个批次
+     *
+     * @param ids     批次内的审计日志ID
+     * @param payload 已写入 '[' 和各条目的请求体
+     * @param results 结果收集
+     */
+    private void sendBatch(List<Long> ids, ByteArrayOutputStream payload,
+                           Map<Long, AuditReportResponse.ItemResult> results) {
+        payload.write(']');
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.set("X-API-Key", apiKey);
+            headers.set("X-Request-ID", UUID.randomUUID().toString().replace("-", ""));
+
+            log.debug("批量上报审计日志到外部系统，URL: {}, 条数: {}, 字节数: {}",
+                    batchReportUrl, ids.size(), payload.size());
+            ResponseEntity<String> response = guardedExchange(batchReportUrl,
+                    new HttpEntity<>(payload.toByteArray(), headers));
+            if (response == null) {
+                // 请求未实际发出，不算一次失败
+                for (Long id : ids) {
+                    results.put(id, itemRejected(id));
+                }
+                return;
+            }
+
+            if (response.getStatusCode() != HttpStatus.OK) {
+                log.warn("审计日志批量上报失败，HTTP状态码: {}", response.getStatusCode());
+                markAll(ids, results, "HTTP状态码: " + response.getStatusCode());
+                return;
+            }
+
+            AuditReportResponse reportResponse = parseResponse(response.getBody());
+            if (reportResponse.getItems() == null) {
+                // 外部系统未返回逐条结果时，以整体结果为准
+                for (Long id : ids) {
+                    results.put(id, reportResponse.isSuccess()
+                            ? itemSuccess(id, null)
+                            : itemFailure(id, reportResponse.getMessage()));
+                }
+                return;
+            }
+
+            // 只采信本批次发送过的ID，避免异常响应改写其他审计日志的上报状态
+            Set<Long> sent = new HashSet<>(ids);
+            for (AuditReportResponse.ItemResult item : reportResponse.getItems()) {
+                if (item.getAuditLogId() != null && sent.contains(item.getAuditLogId())) {
+                    results.put(item.getAuditLogId(), item);
                 } else {
-                    log.warn("审计日志上报失败，HTTP状态码: {}", response.getStatusCode());
-                    return false;
+                    log.warn("忽略外部系统返回的非本批次审计日志结果，ID: {}", item.getAuditLogId());
                 }
-            } catch (Exception e) {
-                log.error("审计日志上报异常，审计ID: {}", auditLog.getId(), e);
-                throw e;
             }
-        });
+            for (Long id : ids) {
+                results.putIfAbsent(id, itemFailure(id, "外部系统未返回该条结果"));
+            }
+            log.info("审计日志批量上报完成，条数: {}", ids.size());
+        } catch (Exception e) {
+            log.error("审计日志批量上报异常，条数: {}", ids.size(), e);
+            markAll(ids, results, "上报异常: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 经熔断器和并发限制器保护后发送请求
+     *
+     * <p>4xx 响应说明对端可用，只有网络异常、超时和 5xx 计为失败</p>
+     *
+     * @param url        请求地址
+     * @param httpEntity 请求实体
+     * @return 响应；熔断或超出并发上限时返回null
+     */
+    private ResponseEntity<String> guardedExchange(String url, HttpEntity<?> httpEntity) {
+        if (!concurrencyLimiter.tryAcquire()) {
+            return null;
+        }
+        if (!circuitBreaker.tryAcquirePermission()) {
+            concurrencyLimiter.release();
+            return null;
+        }
+
+        long start = System.nanoTime();
+        try {
+            ResponseEntity<String> response = restTemplate.exchange(url, HttpMethod.POST, httpEntity, String.class);
+            long elapsed = System.nanoTime() - start;
+            circuitBreaker.onSuccess(elapsed);
+            concurrencyLimiter.onSuccess(elapsed);
+            return response;
+        } catch (HttpClientErrorException e) {
+            long elapsed = System.nanoTime() - start;
+            circuitBreaker.onSuccess(elapsed);
+            concurrencyLimiter.onSuccess(elapsed);
+            throw e;
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            concurrencyLimiter.onDropped();
+            throw e;
+        }
+    }
+
+    private void markAll(List<Long> ids, Map<Long, AuditReportResponse.ItemResult> results, String message) {
+        for (Long id : ids) {
+            results.put(id, itemFailure(id, message));
+        }
+    }
+
+    private AuditReportResponse.ItemResult itemSuccess(Long auditLogId, String auditId) {
+        return AuditReportResponse.ItemResult.builder()
+                .auditLogId(auditLogId)
+                .success(true)
+                .auditId(auditId)
+                .build();
+    }
+
+    private AuditReportResponse.ItemResult itemRejected(Long auditLogId) {
+        return AuditReportResponse.ItemResult.builder()
+                .auditLogId(auditLogId)
+                .success(false)
+                .rejected(true)
+                .message("外部审计系统熔断或并发已满，稍后重试")
+                .build();
+    }
+
+    private AuditReportResponse.ItemResult itemFailure(Long auditLogId, String message) {
+        return AuditReportResponse.ItemResult.builder()
+                .auditLogId(auditLogId)
+                .success(false)
+                .message(message)
+                .build();
     }
 
     /**
@@ -125,11 +324,26 @@ public class AuditReportClient {
      */
     private AuditReportRequest buildRequest(AuditLog auditLog) {
         // 解析JSON数据
-        Map<String, Object> beforeData = parseJson(auditLog.getBeforeData());
-        Map<String, Object> afterData = parseJson(auditLog.getAfterData());
+        Map<String, Object> beforeData;
+        Map<String, Object> afterData;
+        if (AuditLog.StorageMode.DELTA.name().equals(auditLog.getStorageMode())) {
+            // 增量存储：只上报变更字段的前后值
+            beforeData = new HashMap<>();
+            afterData = new HashMap<>();
+            Map<String, List<Object>> delta = auditDeltaStorage.parseDelta(auditLog.getDeltaData());
+            for (Map.Entry<String, List<Object>> entry : delta.entrySet()) {
+                List<Object> values = entry.getValue();
+                beforeData.put(entry.getKey(), values.isEmpty() ? null : values.get(0));
+                afterData.put(entry.getKey(), values.size() > 1 ? values.get(1) : null);
+            }
+        } else {
+            beforeData = parseJson(auditLog.getBeforeData());
+            afterData = parseJson(auditLog.getAfterData());
+        }
         java.util.List<String> changedFields = parseJsonList(auditLog.getChangedFields());
 
         return AuditReportRequest.builder()
+                .auditLogId(auditLog.getId())
                 .moduleName(auditLog.getModuleName())
                 .operationType(auditLog.getOperationType())
                 .businessId(auditLog.getBusinessId())
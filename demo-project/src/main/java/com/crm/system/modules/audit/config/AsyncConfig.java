@@ -1,5 +1,6 @@
 package com.crm.system.modules.audit.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -11,7 +12,8 @@ import java.util.concurrent.ThreadPoolExecutor;
 /**
  * 异步线程池配置
  *
- * <p>配置审计日志专用的异步线程池，用于异步处理审计事件</p>
+ * <p>配置审计日志专用的异步线程池：上报线程池用于审计日志的异步上报（审计事件本身由审计流水线处理），
+ * 重试线程池用于重试调度器派发到期的重试任务</p>
  *
  * @author AI Assistant
  * @since 1.0.0
@@ -20,6 +22,12 @@ import java.util.concurrent.ThreadPoolExecutor;
 @EnableAsync
 public class AsyncConfig {
 
+    @Value("${audit.report.retry.dispatch-threads:4}")
+    private int retryDispatchThreads;
+
+    @Value("${audit.report.retry.dispatch-queue-capacity:16}")
+    private int retryDispatchQueueCapacity;
+
     /**
      * 审计日志专用线程池
      *
@@ -29,7 +37,8 @@ public class AsyncConfig {
      *   <li>最大线程数：10</li>
      *   <li>队列容量：200</li>
      *   <li>线程名称前缀：audit-async-</li>
-     *   <li>拒绝策略：由调用线程执行</li>
+     *   <li>拒绝策略：抛出 TaskRejectedException，由调用方转交重试调度器或留给定时任务兜底。
+     *       调用方是审计日志批量写入线程，不能让它同步执行上报</li>
      * </ul>
      *
      * @return 线程池执行器
@@ -53,8 +62,8 @@ public class AsyncConfig {
         // 线程空闲时间（秒）
         executor.setKeepAliveSeconds(60);
 
-        // 拒绝策略：由调用线程执行（保证任务不丢失）
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        // 拒绝策略：直接拒绝，避免上报阻塞落库线程（记录已落库为待上报，不会丢失）
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
 
         // 等待所有任务完成后再关闭线程池
         executor.setWaitForTasksToCompleteOnShutdown(true);
@@ -63,4 +72,26 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * 审计上报重试专用线程池
+     *
+     * <p>拒绝策略为直接拒绝：线程池繁忙时由重试调度器把任务短暂延后，
+     * 不在调度线程中执行上报，避免阻塞后续到期任务的派发</p>
+     *
+     * @return 线程池执行器
+     */
+    @Bean(name = "auditRetryExecutor")
+    public Executor auditRetryExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(retryDispatchThreads);
+        executor.setMaxPoolSize(retryDispatchThreads);
+        executor.setQueueCapacity(retryDispatchQueueCapacity);
+        executor.setThreadNamePrefix("audit-retry-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
 }
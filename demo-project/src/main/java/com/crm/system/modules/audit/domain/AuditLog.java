@@ -85,6 +85,26 @@ public class AuditLog implements Serializable {
      */
     private String changedFields;
 
+    /**
+     * 存储模式
+     * <p>FULL-全量快照（before_data/after_data 为完整数据）、DELTA-增量（仅 delta_data 记录变更字段）</p>
+     */
+    @Builder.Default
+    private String storageMode = StorageMode.FULL.name();
+
+    /**
+     * 字段级增量数据（JSON格式）
+     * <p>格式：{"字段名": [变更前的值, 变更后的值]}</p>
+     */
+    private String deltaData;
+
+    /**
+     * 增量重建是否不完整（非表字段）
+     * <p>增量存储的记录找不到全量快照时为 true，此时 before_data/after_data 为空，只能参考 delta_data</p>
+     */
+    @TableField(exist = false)
+    private Boolean restoreIncomplete;
+
     /**
      * 上报状态
      * <p>0-待上报，1-已上报，2-上报失败</p>
@@ -158,4 +178,22 @@ public class AuditLog implements Serializable {
             return desc;
         }
     }
+
+    /**
+     * 存储模式枚举
+     */
+    public enum StorageMode {
+        FULL("全量快照"),
+        DELTA("增量");
+
+        private final String desc;
+
+        StorageMode(String desc) {
+            this.desc = desc;
+        }
+
+        public String getDesc() {
+            return desc;
+        }
+    }
 }
@@ -1,6 +1,8 @@
 package com.crm.system.modules.audit.dto;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.crm.system.common.page.CountMode;
+import com.crm.system.modules.audit.domain.AuditLog;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -82,6 +84,28 @@ public class AuditQueryRequest {
      */
     private String sortOrder;
 
+    /**
+     * 是否为增量存储的记录重建完整的变更前/变更后数据
+     * <p>每条增量记录需额外查询，默认不重建</p>
+     */
+    private Boolean withFullData;
+
+    /**
+     * 总数统计模式（EXACT/CACHED/ESTIMATED，为空时使用默认模式）
+     */
+    private CountMode countMode;
+
+    /**
+     * 游标（游标分页时使用，第一页为空）
+     */
+    private String cursor;
+
+    /**
+     * 游标分页时是否统计总数
+     */
+    @Builder.Default
+    private Boolean withTotal = false;
+
     /**
      * 转换为MyBatis-Plus的Page对象
      *
@@ -90,4 +114,31 @@ public class AuditQueryRequest {
     public Page<AuditLog> toPage() {
         return new Page<>(current, size);
     }
+
+    /**
+     * 查询形态：实际使用的筛选条件和排序方向，用于索引分析
+     *
+     * @return 形如 "businessId,moduleName,operateTime|desc" 的描述
+     */
+    public String filterShape() {
+        StringBuilder shape = new StringBuilder();
+        appendIf(shape, businessId != null, "businessId");
+        appendIf(shape, moduleName != null, "moduleName");
+        appendIf(shape, operateTimeStart != null || operateTimeEnd != null, "operateTime");
+        appendIf(shape, operationType != null, "operationType");
+        appendIf(shape, operatorId != null, "operatorId");
+        appendIf(shape, operatorName != null, "operatorName");
+        appendIf(shape, reportStatus != null, "reportStatus");
+        boolean ascending = "operateTime".equals(sortField) && !"desc".equalsIgnoreCase(sortOrder);
+        return shape.append('|').append(ascending ? "asc" : "desc").toString();
+    }
+
+    private static void appendIf(StringBuilder shape, boolean present, String filter) {
+        if (present) {
+            if (shape.length() > 0) {
+                shape.append(',');
+            }
+            shape.append(filter);
+        }
+    }
 }
@@ -23,6 +23,12 @@ import java.util.Map;
 @AllArgsConstructor
 public class AuditReportRequest {
 
+    /**
+     * 本地审计日志ID
+     * <p>批量上报时用于关联外部系统返回的逐条结果</p>
+     */
+    private Long auditLogId;
+
     /**
      * 模块名称
      */
@@ -1,10 +1,13 @@
 package com.crm.system.modules.audit.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * 审计日志上报响应DTO
  *
@@ -44,6 +47,12 @@ public class AuditReportResponse {
      */
     private String receivedAt;
 
+    /**
+     * 批量上报的逐条结果
+     * <p>仅批量上报接口返回</p>
+     */
+    private List<ItemResult> items;
+
     /**
      * 创建成功响应
      *
@@ -72,4 +81,46 @@ public class AuditReportResponse {
                 .errorCode(errorCode)
                 .build();
     }
+
+    /**
+     * 批量上报的单条结果
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+
+        /**
+         * 本地审计日志ID
+         */
+        private Long auditLogId;
+
+        /**
+         * 是否成功
+         */
+        private boolean success;
+
+        /**
+         * 外部系统返回的审计ID
+         */
+        private String auditId;
+
+        /**
+         * 错误码
+         */
+        private String errorCode;
+
+        /**
+         * 响应消息
+         */
+        private String message;
+
+        /**
+         * 是否被本地拒绝（熔断或并发已满，请求未实际发出）
+         * <p>仅本地使用，被拒绝的记录不计入重试次数，也不更新上报状态</p>
+         */
+        @JsonIgnore
+        private boolean rejected;
+    }
 }
@@ -4,14 +4,14 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.springframework.context.ApplicationEvent;
 
-import javax.servlet.http.HttpServletRequest;
+import java.time.LocalDateTime;
 
 /**
  * 审计事件
  *
- * <p>封装审计数据，在系统中传递审计信息</p>
+ * <p>封装审计数据，在系统中传递审计信息。事件在请求线程中创建，只包含不可变的请求快照、操作时间和业务数据副本，
+ * 操作人解析、序列化和差异计算都在异步监听器中完成</p>
  *
  * @author AI Assistant
  * @since 1.0.0
@@ -20,9 +20,7 @@ import javax.servlet.http.HttpServletRequest;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class AuditEvent extends ApplicationEvent {
-
-    private static final long serialVersionUID = 1L;
+public class AuditEvent {
 
     /**
      * 模块名称
@@ -41,10 +39,16 @@ public class AuditEvent extends ApplicationEvent {
     private Long businessId;
 
     /**
-     * 操作人信息
+     * 操作人信息（为空时由监听器根据请求快照解析）
      */
     private OperatorInfo operator;
 
+    /**
+     * 操作时间（事件创建时记录，为空时取处理时间）
+     * <p>流水线排队或溢出时处理会延后，不能用处理时间代替</p>
+     */
+    private LocalDateTime operateTime;
+
     /**
      * 变更前数据
      */
@@ -56,18 +60,9 @@ public class AuditEvent extends ApplicationEvent {
     private Object afterData;
 
     /**
-     * HTTP请求上下文
+     * 请求快照（非HTTP请求触发时为空）
      */
-    private HttpServletRequest request;
-
-    /**
-     * 构造函数
-     *
-     * @param source 事件源
-     */
-    public AuditEvent(Object source) {
-        super(source);
-    }
+    private AuditRequestSnapshot requestSnapshot;
 
     /**
      * 操作类型枚举
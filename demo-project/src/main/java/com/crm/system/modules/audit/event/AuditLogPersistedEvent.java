@@ -0,0 +1,25 @@
+package com.crm.system.modules.audit.event;
+
+import com.crm.system.modules.audit.domain.AuditLog;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 审计日志落库事件
+ *
+ * <p>批量写入器将一批审计日志提交到数据库后发布，用于触发后续的外部上报</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Getter
+@AllArgsConstructor
+public class AuditLogPersistedEvent {
+
+    /**
+     * 本批已落库的审计日志
+     */
+    private final List<AuditLog> auditLogs;
+}
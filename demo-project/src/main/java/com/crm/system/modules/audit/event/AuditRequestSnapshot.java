@@ -0,0 +1,68 @@
+package com.crm.system.modules.audit.event;
+
+import com.crm.system.common.security.CrmPrincipal;
+import lombok.Getter;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * 审计请求快照
+ *
+ * <p>在请求线程中只复制解析所需的原始值（不做任何解析），之后由异步线程解析操作人、客户端IP等；
+ * 不持有 HttpServletRequest，请求结束后容器回收请求对象不影响审计处理</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Getter
+public final class AuditRequestSnapshot {
+
+    /**
+     * 认证过滤器已解析的登录用户（可能为空）
+     */
+    private final CrmPrincipal principal;
+
+    /**
+     * 原始 Authorization 请求头，登录用户为空时在异步线程中验证
+     */
+    private final String authorization;
+
+    private final String forwardedFor;
+
+    private final String realIp;
+
+    private final String remoteAddr;
+
+    /**
+     * 调用方传入的追踪ID（X-Trace-Id），为空时在异步线程中生成
+     */
+    private final String traceId;
+
+    private AuditRequestSnapshot(CrmPrincipal principal, String authorization, String forwardedFor,
+                                 String realIp, String remoteAddr, String traceId) {
+        this.principal = principal;
+        this.authorization = authorization;
+        this.forwardedFor = forwardedFor;
+        this.realIp = realIp;
+        this.remoteAddr = remoteAddr;
+        this.traceId = traceId;
+    }
+
+    /**
+     * 复制当前请求中的审计相关信息
+     *
+     * @param request   HTTP请求
+     * @param principal 当前登录用户
+     * @param header    Token 请求头名称
+     * @return 请求快照
+     */
+    public static AuditRequestSnapshot capture(HttpServletRequest request, CrmPrincipal principal, String header) {
+        return new AuditRequestSnapshot(
+                principal,
+                principal == null ? request.getHeader(header) : null,
+                request.getHeader("X-Forwarded-For"),
+                request.getHeader("X-Real-IP"),
+                request.getRemoteAddr(),
+                request.getHeader("X-Trace-Id"));
+    }
+}
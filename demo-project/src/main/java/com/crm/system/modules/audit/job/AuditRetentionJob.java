@@ -0,0 +1,53 @@
+package com.crm.system.modules.audit.job;
+
+import com.crm.system.modules.audit.retention.AuditPartitionManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 审计日志数据保留定时任务
+ *
+ * <p>预建未来的月分区，并按 audit.retention.days 删除过期分区</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "audit.retention", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AuditRetentionJob {
+
+    private final AuditPartitionManager auditPartitionManager;
+
+    /**
+     * 应用启动后立即执行一次，保证当月及后续月份的分区已存在
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        maintainPartitions();
+    }
+
+    /**
+     * 定时维护分区
+     *
+     * <p>默认每天凌晨2点30分执行，Cron表达式由 audit.retention.cron 配置</p>
+     */
+    @Scheduled(cron = "${audit.retention.cron:0 30 2 * * ?}")
+    public void maintainPartitions() {
+        log.info("开始维护审计日志表分区");
+
+        try {
+            int created = auditPartitionManager.createFuturePartitions();
+            int dropped = auditPartitionManager.dropExpiredPartitions();
+            log.info("审计日志表分区维护完成，新建: {}，删除: {}", created, dropped);
+        } catch (Exception e) {
+            log.error("审计日志表分区维护失败", e);
+        }
+    }
+}
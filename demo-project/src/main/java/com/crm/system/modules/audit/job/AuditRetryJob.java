@@ -3,6 +3,7 @@ package com.crm.system.modules.audit.job;
 import com.crm.system.modules.audit.service.AuditService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -17,6 +18,7 @@ import org.springframework.stereotype.Component;
 @Slf4j
 @Component
 @RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "audit.job", name = "retry-enabled", havingValue = "true", matchIfMissing = true)
 public class AuditRetryJob {
 
     private final AuditService auditService;
@@ -24,10 +26,10 @@ public class AuditRetryJob {
     /**
      * 定时重试失败的审计日志上报
      *
-     * <p>每小时执行一次</p>
-     * <p>Cron表达式：0 0 * * * ? （每小时的0分0秒执行）</p>
+     * <p>兜底处理重试调度器未覆盖的记录（如应用重启前停放中的任务）</p>
+     * <p>默认每小时执行一次，Cron表达式由 audit.job.retry-cron 配置</p>
      */
-    @Scheduled(cron = "0 0 * * * ?")
+    @Scheduled(cron = "${audit.job.retry-cron:0 0 * * * ?}")
     public void retryFailedAuditLogs() {
         log.info("开始重试失败的审计日志上报");
 
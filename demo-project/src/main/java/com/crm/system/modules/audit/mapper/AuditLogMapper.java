@@ -1,9 +1,12 @@
 package com.crm.system.modules.audit.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.crm.system.modules.audit.advisor.IndexColumn;
 import com.crm.system.modules.audit.domain.AuditLog;
+import com.crm.system.modules.audit.retention.AuditPartition;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
 /**
  * 审计日志Mapper接口
@@ -18,13 +21,96 @@ public interface AuditLogMapper extends BaseMapper<AuditLog> {
      * 查询待重试的审计日志
      *
      * @param reportStatus 上报状态
+     * @param pendingStatus 待上报状态（创建已久仍未上报的记录一并重试）
      * @param maxRetryCount 最大重试次数
      * @param limit 限制数量
      * @return 审计日志列表
      */
     java.util.List<AuditLog> selectFailedAuditLogs(
             @Param("reportStatus") Integer reportStatus,
+            @Param("pendingStatus") Integer pendingStatus,
             @Param("maxRetryCount") Integer maxRetryCount,
             @Param("limit") Integer limit
     );
+
+    /**
+     * 批量插入审计日志（单条多行 INSERT 语句）
+     *
+     * @param auditLogs 审计日志列表（ID需预先分配）
+     * @return 影响行数
+     */
+    int insertBatch(@Param("list") java.util.List<AuditLog> auditLogs);
+
+    /**
+     * 幂等批量插入审计日志（仅忽略主键冲突，其他数据错误照常报错）
+     *
+     * @param auditLogs 审计日志列表（ID需预先分配）
+     * @return 影响行数
+     */
+    int insertIgnoreBatch(@Param("list") java.util.List<AuditLog> auditLogs);
+
+    /**
+     * 批量更新上报结果
+     *
+     * @param ids            审计日志ID列表
+     * @param reportStatus   上报状态
+     * @param failReason     失败原因（成功时为null）
+     * @param retryIncrement 重试次数增量
+     * @param lastReportTime 最后上报时间
+     * @return 影响行数
+     */
+    int updateReportResult(
+            @Param("ids") java.util.Collection<Long> ids,
+            @Param("reportStatus") Integer reportStatus,
+            @Param("failReason") String failReason,
+            @Param("retryIncrement") Integer retryIncrement,
+            @Param("lastReportTime") java.time.LocalDateTime lastReportTime
+    );
+
+    /**
+     * 查询审计日志表的分区
+     *
+     * @return 分区列表（按分区顺序），表未分区时为空
+     */
+    java.util.List<AuditPartition> selectPartitions();
+
+    /**
+     * 查询审计日志表的索引列
+     *
+     * @return 索引列列表（按索引名和列顺序）
+     */
+    java.util.List<IndexColumn> selectIndexColumns();
+
+    /**
+     * 从 p_future 中拆分出新的月分区
+     *
+     * @param name     新分区名
+     * @param lessThan 分区上界日期（yyyy-MM-dd，不含）
+     * @return 影响行数
+     */
+    int reorganizeFuturePartition(@Param("name") String name, @Param("lessThan") String lessThan);
+
+    /**
+     * 流式读取单个分区的全部数据（按操作时间排序）
+     *
+     * @param name    分区名
+     * @param handler 逐行处理器
+     */
+    void selectByPartition(@Param("name") String name, ResultHandler<AuditLog> handler);
+
+    /**
+     * 统计单个分区的行数
+     *
+     * @param name 分区名
+     * @return 行数
+     */
+    long countByPartition(@Param("name") String name);
+
+    /**
+     * 删除分区（分区内数据随之删除）
+     *
+     * @param name 分区名
+     * @return 影响行数
+     */
+    int dropPartition(@Param("name") String name);
 }
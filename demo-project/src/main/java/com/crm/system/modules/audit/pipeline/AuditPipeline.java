@@ -0,0 +1,367 @@
+package com.crm.system.modules.audit.pipeline;
+
+import com.crm.system.modules.audit.domain.AuditLog;
+import com.crm.system.modules.audit.event.AuditEvent;
+import com.crm.system.modules.audit.service.AuditService;
+import com.crm.system.modules.audit.storage.AuditDeltaStorage;
+import com.crm.system.modules.audit.util.DiffUtils;
+import com.crm.system.modules.audit.util.FieldChange;
+import com.crm.system.modules.audit.util.SecurityUtils;
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.WaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 审计事件处理流水线
+ *
+ * <p>基于预分配的无锁环形缓冲区（LMAX Disruptor），每个阶段一个线程，按顺序处理同一个槽位：</p>
+ * <ol>
+ *   <li>构建：解析操作人、客户端IP、追踪ID，生成审计日志骨架</li>
+ *   <li>差异：计算 UPDATE 操作的字段变更</li>
+ *   <li>序列化：变更前后数据和变更字段转为JSON，按存储模式压缩</li>
+ *   <li>持久化：交给审计服务写入预写日志或批量写入器，落库后由写入器触发上报</li>
+ * </ol>
+ *
+ * <p>缓冲区已满时不阻塞发布线程，也不由发布线程执行任何处理：原始事件放入有界的溢出队列，
+ * 由溢出线程跳过差异计算和增量压缩，以全量形式交给审计服务（优先写入预写日志）。
+ * 溢出队列同样已满时丢弃该事件并计数告警，保证业务线程始终不受审计积压影响。</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditPipeline {
+
+    /**
+     * 关闭时等待缓冲区处理完的最长时间（毫秒）
+     */
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30000;
+
+    /**
+     * 溢出队列空闲时的轮询间隔（毫秒），同时决定关闭信号的响应速度
+     */
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    @Value("${audit.pipeline.ring-size:8192}")
+    private int ringSize;
+
+    @Value("${audit.pipeline.wait-strategy:blocking}")
+    private String waitStrategy;
+
+    @Value("${audit.pipeline.overflow-capacity:4096}")
+    private int overflowCapacity;
+
+    private final AuditService auditService;
+    private final DiffUtils diffUtils;
+    private final AuditDeltaStorage auditDeltaStorage;
+    private final SecurityUtils securityUtils;
+    private final MeterRegistry meterRegistry;
+
+    private Disruptor<AuditSlot> disruptor;
+    private RingBuffer<AuditSlot> ringBuffer;
+
+    private BlockingQueue<AuditEvent> overflowQueue;
+    private Thread overflowThread;
+    private volatile boolean running;
+
+    private Counter publishedCounter;
+    private Counter overflowCounter;
+    private Counter droppedCounter;
+    private Counter failedCounter;
+    private Timer latencyTimer;
+
+    @PostConstruct
+    @SuppressWarnings("unchecked")
+    public void start() {
+        if (Integer.bitCount(ringSize) != 1) {
+            throw new IllegalStateException("audit.pipeline.ring-size 必须是2的幂: " + ringSize);
+        }
+        this.disruptor = new Disruptor<>(AuditSlot::new, ringSize, threadFactory(),
+                ProducerType.MULTI, createWaitStrategy(waitStrategy));
+        disruptor.setDefaultExceptionHandler(new StageExceptionHandler());
+        disruptor.handleEventsWith(this::buildStage)
+                .then(this::diffStage)
+                .then(this::serializeStage)
+                .then(this::persistStage);
+        this.ringBuffer = disruptor.start();
+
+        this.overflowQueue = new ArrayBlockingQueue<>(overflowCapacity);
+        this.running = true;
+        this.overflowThread = new Thread(this::overflowLoop, "audit-pipeline-overflow");
+        this.overflowThread.setDaemon(true);
+        this.overflowThread.start();
+
+        Gauge.builder("audit.pipeline.remaining", ringBuffer, RingBuffer::remainingCapacity)
+                .description("审计流水线缓冲区剩余容量")
+                .register(meterRegistry);
+        this.publishedCounter = Counter.builder("audit.pipeline.published")
+                .description("进入审计流水线的事件数")
+                .register(meterRegistry);
+        this.overflowCounter = Counter.builder("audit.pipeline.overflow")
+                .description("缓冲区已满、转入溢出队列的事件数")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("audit.pipeline.dropped")
+                .description("缓冲区和溢出队列均已满而被丢弃的事件数")
+                .register(meterRegistry);
+        Gauge.builder("audit.pipeline.overflow.depth", overflowQueue, BlockingQueue::size)
+                .description("审计流水线溢出队列当前积压数")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("audit.pipeline.failed")
+                .description("审计流水线处理失败的事件数")
+                .register(meterRegistry);
+        this.latencyTimer = Timer.builder("audit.pipeline.latency")
+                .description("审计事件从发布到交给写入器的耗时")
+                .register(meterRegistry);
+
+        log.info("审计流水线已启动，ringSize: {}, waitStrategy: {}", ringSize, waitStrategy);
+    }
+
+    /**
+     * 应用关闭时等待缓冲区中的事件处理完
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        overflowThread.interrupt();
+        try {
+            overflowThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 溢出线程未能及时退出时，由关闭线程兜底处理剩余事件
+        List<AuditEvent> remaining = new ArrayList<>();
+        overflowQueue.drainTo(remaining);
+        for (AuditEvent event : remaining) {
+            persistOverflow(event);
+        }
+
+        try {
+            disruptor.shutdown(SHUTDOWN_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            log.info("审计流水线已关闭");
+        } catch (TimeoutException e) {
+            log.error("审计流水线关闭超时，剩余事件未处理: {}", ringSize - ringBuffer.remainingCapacity());
+            disruptor.halt();
+        }
+    }
+
+    /**
+     * 发布审计事件（不阻塞）
+     *
+     * @param event 审计事件
+     */
+    public void publish(AuditEvent event) {
+        long sequence;
+        try {
+            sequence = ringBuffer.tryNext();
+        } catch (InsufficientCapacityException e) {
+            overflowCounter.increment();
+            if (!overflowQueue.offer(event)) {
+                droppedCounter.increment();
+                log.error("审计流水线缓冲区和溢出队列均已满，丢弃审计事件，模块: {}, 操作: {}, 业务ID: {}",
+                        event.getModuleName(), event.getOperationType(), event.getBusinessId());
+            }
+            return;
+        }
+        try {
+            AuditSlot slot = ringBuffer.get(sequence);
+            slot.event = event;
+            slot.publishNanos = System.nanoTime();
+        } finally {
+            ringBuffer.publish(sequence);
+        }
+        publishedCounter.increment();
+    }
+
+    /**
+     * 构建阶段
+     */
+    private void buildStage(AuditSlot slot, long sequence, boolean endOfBatch) {
+        AuditEvent event = slot.event;
+        AuditEvent.OperatorInfo operator = event.getOperator() != null
+                ? event.getOperator() : securityUtils.resolveOperator(event.getRequestSnapshot());
+
+        slot.auditLog = AuditLog.builder()
+                .moduleName(event.getModuleName())
+                .operationType(event.getOperationType().name())
+                .businessId(event.getBusinessId())
+                .operatorId(operator.getUserId())
+                .operatorName(operator.getUsername())
+                // 分区键同时是主键的一部分，截断到秒与DATETIME列精度保持一致，回放时主键不变
+                .operateTime((event.getOperateTime() != null ? event.getOperateTime() : LocalDateTime.now())
+                        .withNano(0))
+                .reportStatus(AuditLog.ReportStatus.PENDING.getCode())
+                .retryCount(0)
+                .clientIp(securityUtils.resolveClientIp(event.getRequestSnapshot()))
+                .traceId(event.getRequestSnapshot() != null
+                        ? securityUtils.resolveTraceId(event.getRequestSnapshot()) : null)
+                .build();
+    }
+
+    /**
+     * 差异计算阶段（仅UPDATE操作）
+     */
+    private void diffStage(AuditSlot slot, long sequence, boolean endOfBatch) {
+        AuditEvent event = slot.event;
+        if (slot.auditLog == null || event.getOperationType() != AuditEvent.OperationType.UPDATE
+                || event.getBeforeData() == null || event.getAfterData() == null) {
+            return;
+        }
+        slot.changes = diffUtils.diff(event.getBeforeData(), event.getAfterData());
+    }
+
+    /**
+     * 序列化阶段
+     */
+    private void serializeStage(AuditSlot slot, long sequence, boolean endOfBatch) {
+        if (slot.auditLog == null) {
+            return;
+        }
+        serialize(slot.event, slot.auditLog, slot.changes);
+        // 增量存储模式下只保留变更字段
+        auditDeltaStorage.compact(slot.auditLog, slot.changes);
+    }
+
+    /**
+     * 持久化阶段，处理完后清空槽位
+     */
+    private void persistStage(AuditSlot slot, long sequence, boolean endOfBatch) {
+        try {
+            if (slot.auditLog != null) {
+                auditService.saveAuditLog(slot.auditLog);
+                latencyTimer.record(System.nanoTime() - slot.publishNanos, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            slot.clear();
+        }
+    }
+
+    /**
+     * 填充JSON数据
+     */
+    private void serialize(AuditEvent event, AuditLog auditLog, List<FieldChange> changes) {
+        if (!changes.isEmpty()) {
+            List<String> changedFields = new ArrayList<>(changes.size());
+            for (FieldChange change : changes) {
+                changedFields.add(change.getField());
+            }
+            auditLog.setChangedFields(diffUtils.toJsonString(changedFields));
+        }
+        auditLog.setBeforeData(diffUtils.toJsonString(event.getBeforeData()));
+        auditLog.setAfterData(diffUtils.toJsonString(event.getAfterData()));
+    }
+
+    /**
+     * 溢出线程主循环
+     */
+    private void overflowLoop() {
+        while (running || !overflowQueue.isEmpty()) {
+            try {
+                AuditEvent event = overflowQueue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (event != null) {
+                    persistOverflow(event);
+                }
+            } catch (InterruptedException e) {
+                // 关闭期间继续循环，直到溢出队列被清空
+                log.debug("审计流水线溢出线程被中断");
+            }
+        }
+    }
+
+    /**
+     * 处理溢出事件：不计算差异、不做增量压缩，以全量形式交给审计服务（优先写入预写日志）
+     */
+    private void persistOverflow(AuditEvent event) {
+        try {
+            AuditSlot slot = new AuditSlot();
+            slot.event = event;
+            buildStage(slot, -1, true);
+            serialize(event, slot.auditLog, Collections.<FieldChange>emptyList());
+            auditService.saveAuditLog(slot.auditLog);
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.error("审计流水线溢出事件处理失败，模块: {}, 业务ID: {}", event.getModuleName(), event.getBusinessId(), e);
+        }
+    }
+
+    private static WaitStrategy createWaitStrategy(String name) {
+        switch (name.toLowerCase()) {
+            case "blocking":
+                return new BlockingWaitStrategy();
+            case "sleeping":
+                return new SleepingWaitStrategy();
+            case "yielding":
+                return new YieldingWaitStrategy();
+            case "busy-spin":
+                return new BusySpinWaitStrategy();
+            default:
+                throw new IllegalStateException("不支持的审计流水线等待策略: " + name
+                        + "，可选 blocking、sleeping、yielding、busy-spin");
+        }
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger index = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "audit-pipeline-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 阶段异常处理：记录后丢弃该槽位的后续处理，流水线继续运行
+     */
+    private final class StageExceptionHandler implements ExceptionHandler<AuditSlot> {
+
+        @Override
+        public void handleEventException(Throwable ex, long sequence, AuditSlot slot) {
+            failedCounter.increment();
+            AuditEvent event = slot.event;
+            log.error("审计事件处理失败，模块: {}, 业务ID: {}",
+                    event != null ? event.getModuleName() : null,
+                    event != null ? event.getBusinessId() : null, ex);
+            // 后续阶段看到 auditLog 为空即跳过；持久化阶段自身失败时直接清空槽位
+            slot.auditLog = null;
+        }
+
+        @Override
+        public void handleOnStartException(Throwable ex) {
+            log.error("审计流水线启动失败", ex);
+        }
+
+        @Override
+        public void handleOnShutdownException(Throwable ex) {
+            log.error("审计流水线关闭异常", ex);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.crm.system.modules.audit.pipeline;
+
+import com.crm.system.modules.audit.domain.AuditLog;
+import com.crm.system.modules.audit.event.AuditEvent;
+import com.crm.system.modules.audit.util.FieldChange;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 审计流水线环形缓冲区中的槽位
+ *
+ * <p>槽位在启动时一次性分配并反复复用，各阶段在同一个槽位上逐步填充数据；
+ * 最后一个阶段处理完后清空引用，避免槽位长期持有业务对象</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+public class AuditSlot {
+
+    /**
+     * 审计事件
+     */
+    AuditEvent event;
+
+    /**
+     * 发布时间（纳秒），用于统计流水线延迟
+     */
+    long publishNanos;
+
+    /**
+     * 构建阶段生成的审计日志（不含数据），前面阶段失败时为空
+     */
+    AuditLog auditLog;
+
+    /**
+     * 差异计算阶段的结果
+     */
+    List<FieldChange> changes = Collections.emptyList();
+
+    void clear() {
+        this.event = null;
+        this.auditLog = null;
+        this.changes = Collections.emptyList();
+    }
+}
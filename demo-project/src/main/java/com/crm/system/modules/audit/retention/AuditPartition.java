@@ -0,0 +1,56 @@
+package com.crm.system.modules.audit.retention;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * 审计日志表分区信息
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Data
+public class AuditPartition {
+
+    /**
+     * MySQL TO_DAYS('1970-01-01') 的值，用于与 epochDay 互相换算
+     */
+    private static final long TO_DAYS_EPOCH = 719528L;
+
+    /**
+     * 分区名
+     */
+    private String name;
+
+    /**
+     * 分区上界（TO_DAYS 值或 MAXVALUE）
+     */
+    private String description;
+
+    /**
+     * 分区估算行数
+     */
+    private Long tableRows;
+
+    /**
+     * 是否为 MAXVALUE 兜底分区
+     *
+     * @return 是否为兜底分区
+     */
+    public boolean isMaxValue() {
+        return "MAXVALUE".equalsIgnoreCase(description);
+    }
+
+    /**
+     * 分区上界日期（不含）
+     *
+     * @return 上界日期，兜底分区返回null
+     */
+    public LocalDate getUpperBound() {
+        if (isMaxValue() || description == null) {
+            return null;
+        }
+        return LocalDate.ofEpochDay(Long.parseLong(description.trim()) - TO_DAYS_EPOCH);
+    }
+}
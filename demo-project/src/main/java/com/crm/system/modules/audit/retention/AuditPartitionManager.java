@@ -0,0 +1,149 @@
+package com.crm.system.modules.audit.retention;
+
+import com.crm.system.modules.audit.archive.AuditArchiveStore;
+import com.crm.system.modules.audit.mapper.AuditLogMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 审计日志表分区管理
+ *
+ * <p>crm_audit_log 按 operate_time 按月分区（pYYYYMM），末尾是 MAXVALUE 兜底分区 p_future：</p>
+ * <ul>
+ *   <li>预建分区：从 p_future 中拆分出未来若干个月的分区，p_future 为空时拆分只修改元数据</li>
+ *   <li>过期清理：上界早于保留截止日的分区先归档为冷数据文件，再整体 DROP</li>
+ * </ul>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditPartitionManager {
+
+    private static final String FUTURE_PARTITION = "p_future";
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("^p[0-9A-Za-z_]+$");
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Value("${audit.retention.days:180}")
+    private int retentionDays;
+
+    @Value("${audit.retention.months-ahead:3}")
+    private int monthsAhead;
+
+    private final AuditLogMapper auditLogMapper;
+    private final AuditArchiveStore auditArchiveStore;
+
+    /**
+     * 预建未来的月分区
+     *
+     * @return 新建的分区数
+     */
+    public int createFuturePartitions() {
+        List<AuditPartition> partitions = auditLogMapper.selectPartitions();
+        if (!isPartitioned(partitions)) {
+            return 0;
+        }
+
+        LocalDate bound = latestUpperBound(partitions);
+        LocalDate target = LocalDate.now().withDayOfMonth(1).plusMonths(monthsAhead + 1L);
+        int created = 0;
+        while (bound.isBefore(target)) {
+            String name = "p" + bound.format(PARTITION_SUFFIX);
+            LocalDate next = bound.plusMonths(1);
+            auditLogMapper.reorganizeFuturePartition(checkName(name), next.toString());
+            log.info("审计日志表预建分区: {}，上界: {}", name, next);
+            bound = next;
+            created++;
+        }
+        return created;
+    }
+
+    /**
+     * 删除已超过保留期的分区（启用归档时先导出为归档文件，并确认归档行数与分区行数一致）
+     *
+     * @return 删除的分区数
+     * @throws IOException 归档失败
+     */
+    public int dropExpiredPartitions() throws IOException {
+        if (retentionDays <= 0) {
+            return 0;
+        }
+        List<AuditPartition> partitions = auditLogMapper.selectPartitions();
+        if (!isPartitioned(partitions)) {
+            return 0;
+        }
+
+        // 分区上界不晚于截止日，说明分区内的数据全部超过保留期
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+        int dropped = 0;
+        for (AuditPartition partition : partitions) {
+            LocalDate upperBound = partition.getUpperBound();
+            if (upperBound == null || upperBound.isAfter(cutoff)) {
+                continue;
+            }
+            String name = checkName(partition.getName());
+            if (auditArchiveStore.isEnabled()) {
+                // 先归档再删除：归档失败时抛出异常，分区保留到下次执行
+                long archived = auditArchiveStore.archivePartition(partition);
+                // 归档期间仍可能有迟到的数据（如落盘缓冲重放）写入该分区，行数不一致时保留分区，下次重新归档
+                long current = auditLogMapper.countByPartition(name);
+                if (current != archived) {
+                    log.error("审计日志分区 {} 归档行数 {} 与当前行数 {} 不一致，跳过删除",
+                            partition.getName(), archived, current);
+                    continue;
+                }
+            }
+            auditLogMapper.dropPartition(name);
+            log.info("审计日志表删除过期分区: {}，上界: {}，估算行数: {}",
+                    partition.getName(), upperBound, partition.getTableRows());
+            dropped++;
+        }
+        return dropped;
+    }
+
+    private boolean isPartitioned(List<AuditPartition> partitions) {
+        if (partitions.isEmpty()) {
+            log.warn("crm_audit_log 未分区，跳过分区维护");
+            return false;
+        }
+        if (!partitions.get(partitions.size() - 1).isMaxValue()) {
+            log.warn("crm_audit_log 缺少 {} 兜底分区，跳过分区维护", FUTURE_PARTITION);
+            return false;
+        }
+        return true;
+    }
+
+    private static LocalDate latestUpperBound(List<AuditPartition> partitions) {
+        LocalDate latest = null;
+        for (AuditPartition partition : partitions) {
+            LocalDate upperBound = partition.getUpperBound();
+            if (upperBound != null && (latest == null || upperBound.isAfter(latest))) {
+                latest = upperBound;
+            }
+        }
+        // 只有兜底分区时，从当月开始预建
+        return latest != null ? latest : LocalDate.now().withDayOfMonth(1);
+    }
+
+    /**
+     * 分区名会拼接进DDL，只允许字母、数字和下划线
+     */
+    private static String checkName(String name) {
+        if (name == null || !PARTITION_NAME.matcher(name).matches() || FUTURE_PARTITION.equals(name)) {
+            throw new IllegalArgumentException("非法的分区名: " + name);
+        }
+        return name;
+    }
+}
@@ -0,0 +1,293 @@
+package com.crm.system.modules.audit.retry;
+
+import com.crm.system.modules.audit.domain.AuditLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 审计上报重试调度器
+ *
+ * <p>上报失败的审计日志带着下次重试时间停放在延迟队列中，到期后由调度线程批量取出，
+ * 交给重试线程池重新上报。退避等待期间不占用任何工作线程，也不会挤占请求线程。</p>
+ *
+ * <p>停放中和派发中的审计日志ID单独记录，定时任务据此跳过这些记录，避免同一条记录被重复上报。</p>
+ *
+ * <p>停放的任务只保存在内存中：超出停放容量或应用重启时，记录仍以"上报失败"状态留在数据库，
+ * 由 {@code AuditRetryJob} 定时任务兜底重试。</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+public class AuditRetryScheduler {
+
+    /**
+     * 线程池拒绝时的重新停放间隔（毫秒）
+     */
+    private static final long REJECTED_REPARK_MILLIS = 1000;
+
+    /**
+     * 单次派发的最大条数
+     */
+    private static final int MAX_DISPATCH_BATCH = 100;
+
+    @Value("${audit.report.max-retry-times:3}")
+    private int maxRetryTimes;
+
+    @Value("${audit.report.retry.initial-interval:60000}")
+    private long initialInterval;
+
+    @Value("${audit.report.retry.multiplier:5.0}")
+    private double multiplier;
+
+    @Value("${audit.report.retry.max-interval:1800000}")
+    private long maxInterval;
+
+    @Value("${audit.report.retry.max-parked:10000}")
+    private int maxParked;
+
+    private final Executor auditRetryExecutor;
+    private final MeterRegistry meterRegistry;
+
+    private final DelayQueue<ParkedReport> delayQueue = new DelayQueue<>();
+
+    /**
+     * 停放中或派发中的审计日志ID到对应停放任务的映射
+     */
+    private final Map<Long, ParkedReport> inFlight = new ConcurrentHashMap<>();
+    private volatile Consumer<List<AuditLog>> dispatcher;
+    private volatile boolean running;
+    private Thread dispatchThread;
+
+    private Counter parkedCounter;
+    private Counter dispatchedCounter;
+    private Counter droppedCounter;
+
+    public AuditRetryScheduler(@Qualifier("auditRetryExecutor") Executor auditRetryExecutor,
+                               MeterRegistry meterRegistry) {
+        this.auditRetryExecutor = auditRetryExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        Gauge.builder("audit.retry.parked", delayQueue, DelayQueue::size)
+                .description("等待重试的审计日志数")
+                .register(meterRegistry);
+        this.parkedCounter = Counter.builder("audit.retry.scheduled")
+                .description("进入延迟重试的次数")
+                .register(meterRegistry);
+        this.dispatchedCounter = Counter.builder("audit.retry.dispatched")
+                .description("到期重新派发的审计日志数")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("audit.retry.dropped")
+                .description("超出停放容量、交由定时任务兜底的审计日志数")
+                .register(meterRegistry);
+
+        this.running = true;
+        this.dispatchThread = new Thread(this::dispatchLoop, "audit-retry-dispatcher");
+        this.dispatchThread.setDaemon(true);
+        this.dispatchThread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        dispatchThread.interrupt();
+        if (!delayQueue.isEmpty()) {
+            log.info("应用关闭，{} 条待重试审计日志将由定时任务继续重试", delayQueue.size());
+        }
+    }
+
+    /**
+     * 注册到期后的重新上报逻辑
+     *
+     * @param dispatcher 重新上报逻辑，在重试线程池中执行
+     */
+    public void setDispatcher(Consumer<List<AuditLog>> dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * 停放一条上报失败的审计日志，等待退避时间到期后重试
+     *
+     * <p>调用前审计日志的重试次数应已累加本次失败</p>
+     *
+     * @param auditLog 审计日志
+     * @return 是否已停放（超出最大重试次数或停放容量时返回false）
+     */
+    public boolean schedule(AuditLog auditLog) {
+        int retryCount = auditLog.getRetryCount() != null ? auditLog.getRetryCount() : 0;
+        if (retryCount >= maxRetryTimes) {
+            log.warn("审计日志已达到最大重试次数，停止重试，ID: {}", auditLog.getId());
+            return false;
+        }
+        if (delayQueue.size() >= maxParked) {
+            droppedCounter.increment();
+            log.warn("待重试审计日志已达停放上限 {}，交由定时任务兜底，ID: {}", maxParked, auditLog.getId());
+            return false;
+        }
+
+        long delay = backoffMillis(retryCount);
+        park(auditLog, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay));
+        parkedCounter.increment();
+        log.debug("审计日志将在 {}ms 后重试，ID: {}，已重试次数: {}", delay, auditLog.getId(), retryCount);
+        return true;
+    }
+
+    /**
+     * 重新停放一条未实际发出的上报（熔断或并发已满时被本地拒绝）
+     *
+     * <p>不累加重试次数，按当前重试次数对应的退避间隔延后</p>
+     *
+     * @param auditLog 审计日志
+     * @return 是否已停放（超出停放容量时返回false）
+     */
+    public boolean defer(AuditLog auditLog) {
+        if (delayQueue.size() >= maxParked) {
+            droppedCounter.increment();
+            log.warn("待重试审计日志已达停放上限 {}，交由定时任务兜底，ID: {}", maxParked, auditLog.getId());
+            return false;
+        }
+        int retryCount = auditLog.getRetryCount() != null ? auditLog.getRetryCount() : 0;
+        long delay = backoffMillis(Math.max(1, retryCount));
+        park(auditLog, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay));
+        parkedCounter.increment();
+        log.debug("审计日志上报被拒绝，{}ms 后重试，ID: {}", delay, auditLog.getId());
+        return true;
+    }
+
+    /**
+     * 判断审计日志是否正在停放或派发中
+     *
+     * @param auditLogId 审计日志ID
+     * @return 是否由重试调度器负责
+     */
+    public boolean isInFlight(Long auditLogId) {
+        return inFlight.containsKey(auditLogId);
+    }
+
+    private void park(AuditLog auditLog, long dueNanos) {
+        ParkedReport parked = new ParkedReport(auditLog, dueNanos);
+        inFlight.put(auditLog.getId(), parked);
+        delayQueue.offer(parked);
+    }
+
+    /**
+     * 计算指数退避间隔，并叠加±10%的随机抖动，避免大量记录同时重试
+     *
+     * @param retryCount 已失败次数（从1开始）
+     * @return 退避间隔（毫秒）
+     */
+    private long backoffMillis(int retryCount) {
+        double interval = initialInterval * Math.pow(multiplier, Math.max(0, retryCount - 1));
+        long capped = (long) Math.min(interval, maxInterval);
+        long jitter = (long) (capped * 0.1 * (ThreadLocalRandom.current().nextDouble() * 2 - 1));
+        return Math.max(0, capped + jitter);
+    }
+
+    /**
+     * 调度线程主循环：阻塞等待最早到期的任务，再把同时到期的任务合并为一批派发
+     */
+    private void dispatchLoop() {
+        while (running) {
+            try {
+                ParkedReport first = delayQueue.take();
+                List<ParkedReport> due = new ArrayList<>();
+                due.add(first);
+                delayQueue.drainTo(due, MAX_DISPATCH_BATCH - 1);
+                dispatch(due);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("审计重试调度异常", e);
+            }
+        }
+    }
+
+    private void dispatch(List<ParkedReport> due) {
+        Consumer<List<AuditLog>> target = dispatcher;
+        List<AuditLog> auditLogs = new ArrayList<>(due.size());
+        for (ParkedReport parked : due) {
+            auditLogs.add(parked.auditLog);
+        }
+        if (target == null) {
+            log.warn("审计重试派发逻辑未注册，丢弃 {} 条重试任务", auditLogs.size());
+            release(due);
+            return;
+        }
+
+        try {
+            auditRetryExecutor.execute(() -> {
+                try {
+                    target.accept(auditLogs);
+                } finally {
+                    // 上报失败时已重新停放并登记了新的停放任务，只释放本次派发的登记
+                    release(due);
+                }
+            });
+            dispatchedCounter.increment(auditLogs.size());
+        } catch (RejectedExecutionException e) {
+            // 线程池繁忙时短暂延后，不在调度线程中执行上报
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(REJECTED_REPARK_MILLIS);
+            for (AuditLog auditLog : auditLogs) {
+                park(auditLog, deadline);
+            }
+            log.warn("审计重试线程池繁忙，{} 条重试任务延后派发", auditLogs.size());
+        }
+    }
+
+    private void release(List<ParkedReport> due) {
+        for (ParkedReport parked : due) {
+            inFlight.remove(parked.auditLog.getId(), parked);
+        }
+    }
+
+    /**
+     * 停放中的上报任务
+     */
+    private static final class ParkedReport implements Delayed {
+
+        private final AuditLog auditLog;
+        private final long dueNanos;
+
+        private ParkedReport(AuditLog auditLog, long dueNanos) {
+            this.auditLog = auditLog;
+            this.dueNanos = dueNanos;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other instanceof ParkedReport) {
+                return Long.compare(dueNanos, ((ParkedReport) other).dueNanos);
+            }
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
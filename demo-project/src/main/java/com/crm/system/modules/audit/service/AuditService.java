@@ -1,9 +1,12 @@
 package com.crm.system.modules.audit.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.crm.system.common.result.CursorPageResult;
 import com.crm.system.modules.audit.domain.AuditLog;
 import com.crm.system.modules.audit.dto.AuditQueryRequest;
 
+import java.util.List;
+
 /**
  * 审计服务接口
  *
@@ -14,6 +17,7 @@ public interface AuditService {
 
     /**
      * 保存审计日志到数据库
+     * <p>追加到本地预写日志（或提交到批量写入器）后立即返回，落库完成后发布 AuditLogPersistedEvent</p>
      *
      * @param auditLog 审计日志
      */
@@ -26,6 +30,14 @@ public interface AuditService {
      */
     void reportAuditLogAsync(Long auditLogId);
 
+    /**
+     * 异步上报一组已落库的审计日志到外部系统
+     * <p>启用批量上报时以数组报文合并发送，并按逐条结果批量回写上报状态</p>
+     *
+     * @param auditLogs 审计日志列表
+     */
+    void reportAuditLogsAsync(List<AuditLog> auditLogs);
+
     /**
      * 批量重试失败的审计日志上报
      * <p>定时任务调用</p>
@@ -39,4 +51,21 @@ public interface AuditService {
      * @return 分页结果
      */
     IPage<AuditLog> queryAuditLogPage(AuditQueryRequest request);
+
+    /**
+     * 游标分页查询审计日志（按操作时间排序，只查询数据库中的数据）
+     *
+     * @param request 查询请求
+     * @return 游标分页结果
+     */
+    CursorPageResult<AuditLog> queryAuditLogCursorPage(AuditQueryRequest request);
+
+    /**
+     * 查询审计日志详情
+     * <p>增量存储的记录会重建完整的变更前/变更后数据</p>
+     *
+     * @param id 审计日志ID
+     * @return 审计日志
+     */
+    AuditLog getAuditLogDetail(Long id);
 }
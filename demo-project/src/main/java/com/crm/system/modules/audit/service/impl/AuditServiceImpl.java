@@ -2,26 +2,43 @@ package com.crm.system.modules.audit.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.crm.system.common.exception.BusinessException;
+import com.crm.system.common.page.CountedPage;
+import com.crm.system.common.page.PageCounter;
+import com.crm.system.common.result.CursorPageResult;
+import com.crm.system.common.result.PageCursor;
+import com.crm.system.modules.audit.advisor.AuditQueryAdvisor;
+import com.crm.system.modules.audit.archive.AuditArchiveStore;
 import com.crm.system.modules.audit.client.AuditReportClient;
 import com.crm.system.modules.audit.domain.AuditLog;
 import com.crm.system.modules.audit.dto.AuditQueryRequest;
+import com.crm.system.modules.audit.dto.AuditReportResponse;
 import com.crm.system.modules.audit.event.AuditEvent;
 import com.crm.system.modules.audit.mapper.AuditLogMapper;
+import com.crm.system.modules.audit.retry.AuditRetryScheduler;
 import com.crm.system.modules.audit.service.AuditService;
+import com.crm.system.modules.audit.spool.AuditSpool;
+import com.crm.system.modules.audit.storage.AuditDeltaStorage;
 import com.crm.system.modules.audit.util.DiffUtils;
+import com.crm.system.modules.audit.writer.AuditLogBatchWriter;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -36,18 +53,37 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class AuditServiceImpl extends ServiceImpl<AuditLogMapper, AuditLog> implements AuditService {
 
+    /**
+     * 失败原因字段最大长度
+     */
+    private static final int MAX_FAIL_REASON_LENGTH = 500;
+
+    @Value("${audit.report.batch.enabled:true}")
+    private boolean batchReportEnabled;
+
     private final AuditLogMapper auditLogMapper;
     private final AuditReportClient auditReportClient;
+    private final AuditLogBatchWriter auditLogBatchWriter;
+    private final AuditSpool auditSpool;
+    private final AuditDeltaStorage auditDeltaStorage;
+    private final AuditArchiveStore auditArchiveStore;
+    private final PageCounter pageCounter;
+    private final AuditQueryAdvisor auditQueryAdvisor;
+    private final AuditRetryScheduler auditRetryScheduler;
     private final DiffUtils diffUtils;
     private final ObjectMapper objectMapper;
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public void saveAuditLog(AuditLog auditLog) {
         try {
-            // 保存审计日志
-            auditLogMapper.insert(auditLog);
-            log.info("审计日志保存成功，ID: {}, 模块: {}, 操作: {}",
+            if (auditLog.getId() == null) {
+                auditLog.setId(IdWorker.getId());
+            }
+            // 优先追加到本地预写日志，由回放线程异步落库；预写日志不可用时直接提交到批量写入器
+            if (!auditSpool.isEnabled() || !auditSpool.append(auditLog)) {
+                auditLogBatchWriter.write(auditLog);
+            }
+            log.debug("审计日志已提交写入，ID: {}, 模块: {}, 操作: {}",
                     auditLog.getId(), auditLog.getModuleName(), auditLog.getOperationType());
         } catch (Exception e) {
             log.error("审计日志保存失败", e);
@@ -55,6 +91,20 @@ public class AuditServiceImpl extends ServiceImpl<AuditLogMapper, AuditLog> impl
         }
     }
 
+    /**
+     * 注册重试调度器的到期派发逻辑
+     */
+    @PostConstruct
+    public void registerRetryDispatcher() {
+        auditRetryScheduler.setDispatcher(auditLogs -> {
+            try {
+                reportAuditLogs(auditLogs);
+            } catch (Exception e) {
+                log.error("审计日志重试上报异常，条数: {}", auditLogs.size(), e);
+            }
+        });
+    }
+
     @Override
     @Async("auditTaskExecutor")
     public void reportAuditLogAsync(Long auditLogId) {
@@ -72,57 +122,128 @@ public class AuditServiceImpl extends ServiceImpl<AuditLogMapper, AuditLog> impl
                 return;
             }
 
-            // 上报到外部系统
-            boolean success = auditReportClient.report(auditLog);
+            reportAuditLogs(Collections.singletonList(auditLog));
+        } catch (Exception e) {
+            log.error("审计日志上报异常，ID: {}", auditLogId, e);
+        }
+    }
 
-            // 更新上报状态
-            AuditLog updateLog = new AuditLog();
-            updateLog.setId(auditLogId);
-            updateLog.setLastReportTime(auditLog.getUpdateTime());
+    @Override
+    @Async("auditTaskExecutor")
+    public void reportAuditLogsAsync(List<AuditLog> auditLogs) {
+        try {
+            reportAuditLogs(auditLogs);
+        } catch (Exception e) {
+            log.error("审计日志批量上报异常，条数: {}", auditLogs.size(), e);
+        }
+    }
 
-            if (success) {
-                updateLog.setReportStatus(AuditLog.ReportStatus.SUCCESS.getCode());
-                updateLog.setFailReason(null);
-                log.info("审计日志上报成功，ID: {}", auditLogId);
-            } else {
-                updateLog.setRetryCount(auditLog.getRetryCount() + 1);
-                updateLog.setReportStatus(AuditLog.ReportStatus.FAILED.getCode());
-                updateLog.setFailReason("上报失败，将在下次重试");
-                log.warn("审计日志上报失败，ID: {}，重试次数: {}", auditLogId, updateLog.getRetryCount());
+    /**
+     * 上报一组已落库的审计日志，并按结果批量回写上报状态
+     *
+     * @param auditLogs 审计日志列表
+     */
+    private void reportAuditLogs(List<AuditLog> auditLogs) {
+        // 过滤已上报成功的记录
+        List<AuditLog> pending = new ArrayList<>(auditLogs.size());
+        for (AuditLog auditLog : auditLogs) {
+            if (!AuditLog.ReportStatus.SUCCESS.getCode().equals(auditLog.getReportStatus())) {
+                pending.add(auditLog);
             }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
 
-            auditLogMapper.updateById(updateLog);
-        } catch (Exception e) {
-            log.error("审计日志上报异常，ID: {}", auditLogId, e);
-            // 更新失败状态
-            try {
-                AuditLog updateLog = new AuditLog();
-                updateLog.setId(auditLogId);
-                updateLog.setRetryCount(updateLog.getRetryCount() != null ? updateLog.getRetryCount() + 1 : 1);
-                updateLog.setReportStatus(AuditLog.ReportStatus.FAILED.getCode());
-                updateLog.setFailReason("上报异常: " + e.getMessage());
-                auditLogMapper.updateById(updateLog);
-            } catch (Exception ex) {
-                log.error("更新审计日志失败状态失败", ex);
+        Map<Long, AuditReportResponse.ItemResult> results;
+        if (batchReportEnabled) {
+            results = auditReportClient.reportBatch(pending);
+        } else {
+            results = new HashMap<>(pending.size() * 2);
+            for (AuditLog auditLog : pending) {
+                results.put(auditLog.getId(), auditReportClient.report(auditLog));
+            }
+        }
+
+        updateReportResults(results);
+
+        // 失败的记录停放到重试调度器，退避到期后再重新上报；
+        // 熔断或并发已满而未发出的记录原样重新停放，不累加重试次数
+        for (AuditLog auditLog : pending) {
+            AuditReportResponse.ItemResult result = results.get(auditLog.getId());
+            if (result != null && result.isRejected()) {
+                auditRetryScheduler.defer(auditLog);
+            } else if (result != null && !result.isSuccess()) {
+                auditLog.setRetryCount((auditLog.getRetryCount() != null ? auditLog.getRetryCount() : 0) + 1);
+                auditLog.setReportStatus(AuditLog.ReportStatus.FAILED.getCode());
+                auditRetryScheduler.schedule(auditLog);
             }
         }
     }
 
+    /**
+     * 按上报结果批量更新上报状态
+     *
+     * <p>成功的记录一条UPDATE完成，失败的记录按失败原因分组更新；被本地拒绝的记录不更新</p>
+     *
+     * @param results 审计日志ID到上报结果的映射
+     */
+    private void updateReportResults(Map<Long, AuditReportResponse.ItemResult> results) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> successIds = new ArrayList<>();
+        Map<String, List<Long>> failedIdsByReason = new LinkedHashMap<>();
+
+        for (Map.Entry<Long, AuditReportResponse.ItemResult> entry : results.entrySet()) {
+            AuditReportResponse.ItemResult result = entry.getValue();
+            if (result.isRejected()) {
+                continue;
+            }
+            if (result.isSuccess()) {
+                successIds.add(entry.getKey());
+            } else {
+                String reason = result.getMessage() != null ? result.getMessage() : "上报失败，将在下次重试";
+                if (reason.length() > MAX_FAIL_REASON_LENGTH) {
+                    reason = reason.substring(0, MAX_FAIL_REASON_LENGTH);
+                }
+                failedIdsByReason.computeIfAbsent(reason, k -> new ArrayList<>()).add(entry.getKey());
+            }
+        }
+
+        if (!successIds.isEmpty()) {
+            auditLogMapper.updateReportResult(successIds, AuditLog.ReportStatus.SUCCESS.getCode(), null, 0, now);
+            log.info("审计日志上报成功 {} 条", successIds.size());
+        }
+        for (Map.Entry<String, List<Long>> entry : failedIdsByReason.entrySet()) {
+            auditLogMapper.updateReportResult(entry.getValue(), AuditLog.ReportStatus.FAILED.getCode(),
+                    entry.getKey(), 1, now);
+            log.warn("审计日志上报失败 {} 条，原因: {}", entry.getValue().size(), entry.getKey());
+        }
+    }
+
+    /**
+     * 重试失败的审计日志
+     *
+     * <p>不开启事务：上报是同步的远程调用，状态更新本身都是单条语句，
+     * 不应在远程调用期间占用数据库连接</p>
+     */
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public void retryFailedAuditLogs() {
         try {
             // 查询失败的审计日志
             List<AuditLog> failedLogs = auditLogMapper.selectFailedAuditLogs(
                     AuditLog.ReportStatus.FAILED.getCode(),
+                    AuditLog.ReportStatus.PENDING.getCode(),
                     3,  // 最大重试次数
                     100  // 每次处理100条
             );
 
+            // 跳过仍由重试调度器停放或派发中的记录，避免重复上报、重复累加重试次数
+            failedLogs.removeIf(auditLog -> auditRetryScheduler.isInFlight(auditLog.getId()));
             log.info("查询到失败的审计日志 {} 条，开始重试", failedLogs.size());
 
-            for (AuditLog auditLog : failedLogs) {
-                reportAuditLogAsync(auditLog.getId());
+            // 查询结果已是完整记录，直接批量上报，无需逐条回查
+            if (!failedLogs.isEmpty()) {
+                reportAuditLogs(failedLogs);
             }
         } catch (Exception e) {
             log.error("重试失败审计日志异常", e);
@@ -131,10 +252,157 @@ public class AuditServiceImpl extends ServiceImpl<AuditLogMapper, AuditLog> impl
 
     @Override
     public IPage<AuditLog> queryAuditLogPage(AuditQueryRequest request) {
-        // 构建分页对象
-        Page<AuditLog> page = request.toPage();
+        long start = System.nanoTime();
+        try {
+            return doQueryAuditLogPage(request);
+        } finally {
+            auditQueryAdvisor.record(request, System.nanoTime() - start);
+        }
+    }
+
+    private IPage<AuditLog> doQueryAuditLogPage(AuditQueryRequest request) {
+        // 查询时间段早于归档水位线时，需要从归档文件中读取；未指定开始时间视为从最早开始
+        LocalDateTime watermark = auditArchiveStore.isEnabled() ? auditArchiveStore.getWatermark() : null;
+        IPage<AuditLog> result;
+        if (watermark != null && (request.getOperateTimeStart() == null
+                || request.getOperateTimeStart().isBefore(watermark))) {
+            result = queryWithArchive(request, request.toPage(), watermark);
+        } else {
+            // 构建分页对象，并按请求的模式统计总数
+            CountedPage<AuditLog> page =
+                    pageCounter.newPage(request.getCurrent(), request.getSize(), request.getCountMode());
+            LambdaQueryWrapper<AuditLog> wrapper = buildQueryWrapper(request);
+            pageCounter.count(page, auditLogMapper, AuditLog.class, wrapper);
+            applyOrder(wrapper, request);
+            result = auditLogMapper.selectPage(page, wrapper);
+        }
+
+        if (Boolean.TRUE.equals(request.getWithFullData())) {
+            auditDeltaStorage.restore(result.getRecords());
+        }
+        return result;
+    }
+
+    @Override
+    public CursorPageResult<AuditLog> queryAuditLogCursorPage(AuditQueryRequest request) {
+        long start = System.nanoTime();
+        try {
+            return doQueryAuditLogCursorPage(request);
+        } finally {
+            auditQueryAdvisor.record(request, System.nanoTime() - start);
+        }
+    }
+
+    private CursorPageResult<AuditLog> doQueryAuditLogCursorPage(AuditQueryRequest request) {
+        boolean ascending = isAscending(request);
+        int size = PageCursor.checkSize(request.getSize());
+        LambdaQueryWrapper<AuditLog> wrapper = buildQueryWrapper(request);
+
+        CursorPageResult<AuditLog> result = new CursorPageResult<>();
+        result.setSize(request.getSize());
+        if (Boolean.TRUE.equals(request.getWithTotal())) {
+            result.setTotal(auditLogMapper.selectCount(wrapper));
+        }
+
+        // 按 (operate_time, id) 定位到上一页末尾之后，多取一条判断是否还有下一页
+        PageCursor cursor = PageCursor.decode(request.getCursor());
+        if (cursor != null) {
+            wrapper.apply("(operate_time, id) " + (ascending ? ">" : "<") + " ({0}, {1})",
+                    cursor.getTime(), cursor.getId());
+        }
+        wrapper.orderBy(true, ascending, AuditLog::getOperateTime, AuditLog::getId);
+        wrapper.last("LIMIT " + (size + 1));
+        List<AuditLog> records = auditLogMapper.selectList(wrapper);
+
+        boolean hasMore = records.size() > size;
+        if (hasMore) {
+            records = new ArrayList<>(records.subList(0, size));
+            AuditLog last = records.get(size - 1);
+            result.setNextCursor(new PageCursor(last.getOperateTime(), last.getId()).encode());
+        }
+        if (Boolean.TRUE.equals(request.getWithFullData())) {
+            auditDeltaStorage.restore(records);
+        }
+        result.setHasMore(hasMore);
+        result.setRecords(records);
+        return result;
+    }
+
+    /**
+     * 跨越归档水位线的分页查询
+     *
+     * <p>水位线之前的数据在归档文件中，之后的在数据库中。两段在时间上不重叠，
+     * 按排序方向拼接：降序时数据库在前、归档在后，升序时相反。</p>
+     *
+     * @param request   查询请求
+     * @param page      分页对象
+     * @param watermark 归档水位线
+     * @return 分页结果
+     */
+    private IPage<AuditLog> queryWithArchive(AuditQueryRequest request, Page<AuditLog> page, LocalDateTime watermark) {
+        boolean ascending = isAscending(request);
+        long offset = (page.getCurrent() - 1) * page.getSize();
+        int limit = (int) page.getSize();
+
+        // 数据库部分：查询结束时间早于水位线时无需查询
+        long dbTotal = 0;
+        LambdaQueryWrapper<AuditLog> wrapper = null;
+        if (request.getOperateTimeEnd() == null || !request.getOperateTimeEnd().isBefore(watermark)) {
+            wrapper = buildQueryWrapper(request);
+            wrapper.ge(AuditLog::getOperateTime, watermark);
+            dbTotal = auditLogMapper.selectCount(wrapper);
+        }
 
-        // 构建查询条件
+        // 归档部分：按拼接顺序换算归档内的偏移量
+        long archiveOffset = ascending ? offset : Math.max(0, offset - dbTotal);
+        AuditArchiveStore.ArchiveQueryResult archive =
+                auditArchiveStore.query(request, watermark, ascending, archiveOffset, limit);
+        long archiveTotal = archive.getTotal();
+
+        List<AuditLog> records = new ArrayList<>(limit);
+        long firstTotal = ascending ? archiveTotal : dbTotal;
+        if (offset < firstTotal) {
+            // 当前页从第一段开始
+            if (ascending) {
+                records.addAll(archive.getRecords());
+            } else {
+                records.addAll(selectSlice(wrapper, request, offset, limit));
+            }
+        }
+        int remaining = limit - records.size();
+        if (remaining > 0) {
+            long secondOffset = Math.max(0, offset - firstTotal);
+            if (ascending) {
+                if (wrapper != null) {
+                    records.addAll(selectSlice(wrapper, request, secondOffset, remaining));
+                }
+            } else {
+                records.addAll(archive.getRecords().subList(0, Math.min(remaining, archive.getRecords().size())));
+            }
+        }
+
+        page.setRecords(records);
+        page.setTotal(dbTotal + archiveTotal);
+        return page;
+    }
+
+    private List<AuditLog> selectSlice(LambdaQueryWrapper<AuditLog> wrapper, AuditQueryRequest request,
+                                       long offset, int limit) {
+        if (wrapper == null || limit <= 0) {
+            return Collections.emptyList();
+        }
+        applyOrder(wrapper, request);
+        wrapper.last("LIMIT " + offset + ", " + limit);
+        return auditLogMapper.selectList(wrapper);
+    }
+
+    /**
+     * 构建审计日志查询条件（不含排序）
+     *
+     * @param request 查询请求
+     * @return 查询条件
+     */
+    private LambdaQueryWrapper<AuditLog> buildQueryWrapper(AuditQueryRequest request) {
         LambdaQueryWrapper<AuditLog> wrapper = new LambdaQueryWrapper<>();
 
         // 模块名称
@@ -174,15 +442,27 @@ public class AuditServiceImpl extends ServiceImpl<AuditLogMapper, AuditLog> impl
         if (request.getReportStatus() != null) {
             wrapper.eq(AuditLog::getReportStatus, request.getReportStatus());
         }
+        return wrapper;
+    }
 
-        // 排序
-        if ("operateTime".equals(request.getSortField())) {
-            wrapper.orderBy(true, "desc".equalsIgnoreCase(request.getSortOrder()), AuditLog::getOperateTime);
-        } else {
-            wrapper.orderByDesc(AuditLog::getOperateTime);
-        }
+    private void applyOrder(LambdaQueryWrapper<AuditLog> wrapper, AuditQueryRequest request) {
+        wrapper.orderBy(true, isAscending(request), AuditLog::getOperateTime);
+    }
+
+    /**
+     * 排序方向：仅在显式指定按操作时间升序时升序，默认降序
+     */
+    private boolean isAscending(AuditQueryRequest request) {
+        return "operateTime".equals(request.getSortField()) && !"desc".equalsIgnoreCase(request.getSortOrder());
+    }
 
-        // 查询分页数据
-        return auditLogMapper.selectPage(page, wrapper);
+    @Override
+    public AuditLog getAuditLogDetail(Long id) {
+        AuditLog auditLog = auditLogMapper.selectById(id);
+        if (auditLog == null) {
+            throw new BusinessException("审计日志不存在");
+        }
+        auditDeltaStorage.restore(auditLog);
+        return auditLog;
     }
 }
@@ -0,0 +1,470 @@
+package com.crm.system.modules.audit.spool;
+
+import com.crm.system.modules.audit.domain.AuditLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * 审计日志本地预写日志（WAL）
+ *
+ * <p>审计日志以追加方式写入内存映射的分段文件，写入只是一次内存拷贝，不依赖数据库可用性。
+ * 后台回放线程（{@link AuditSpoolDrainer}）再把记录搬运到 crm_audit_log。</p>
+ *
+ * <p>文件格式：</p>
+ * <ul>
+ *   <li>分段文件：audit-{序号}.seg，固定大小，写满后切换到下一个分段</li>
+ *   <li>记录：[4字节长度][4字节CRC32][JSON内容]，长度为0表示分段内后续无数据</li>
+ *   <li>检查点：checkpoint 文件记录已成功回放到的（分段序号, 偏移量）</li>
+ * </ul>
+ *
+ * <p>启动时从检查点开始逐条校验CRC，遇到长度非法或校验失败的记录（进程崩溃时写了一半）即视为分段末尾，
+ * 后续追加从该位置继续覆盖写入。</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditSpool {
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    /**
+     * 记录头长度：长度(4) + CRC32(4)
+     */
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    @Value("${audit.spool.enabled:true}")
+    private boolean enabled;
+
+    @Value("${audit.spool.dir:data/audit-spool}")
+    private String spoolDir;
+
+    @Value("${audit.spool.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${audit.spool.max-segments:64}")
+    private int maxSegments;
+
+    @Value("${audit.spool.sync-on-append:false}")
+    private boolean syncOnAppend;
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private Path directory;
+    private int segmentSize;
+    private volatile Segment active;
+    private volatile SpoolPosition checkpoint;
+
+    private Timer appendTimer;
+    private Counter appendedCounter;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            log.info("审计日志本地预写日志未启用");
+            return;
+        }
+
+        this.directory = Paths.get(spoolDir);
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+        Files.createDirectories(directory);
+
+        recover();
+
+        Gauge.builder("audit.spool.segments", segments, Map::size)
+                .description("审计预写日志分段文件数")
+                .register(meterRegistry);
+        this.appendTimer = Timer.builder("audit.spool.append")
+                .description("审计预写日志追加耗时")
+                .register(meterRegistry);
+        this.appendedCounter = Counter.builder("audit.spool.appended")
+                .description("写入审计预写日志的记录数")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("audit.spool.rejected")
+                .description("预写日志已满被拒绝的记录数")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (!enabled) {
+            return;
+        }
+        for (Segment segment : segments.values()) {
+            segment.close();
+        }
+        segments.clear();
+        log.info("审计日志本地预写日志已关闭");
+    }
+
+    /**
+     * 是否启用本地预写日志
+     *
+     * @return 是否启用
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 追加一条审计日志
+     *
+     * @param auditLog 审计日志（ID需预先分配）
+     * @return 是否写入成功（预写日志已满或序列化失败时返回false）
+     */
+    public boolean append(AuditLog auditLog) {
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(auditLog);
+        } catch (Exception e) {
+            log.error("审计日志序列化失败，ID: {}", auditLog.getId(), e);
+            return false;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+        int recordBytes = RECORD_HEADER_BYTES + payload.length;
+        if (recordBytes > segmentSize) {
+            log.error("审计日志过大，无法写入预写日志，ID: {}, 字节数: {}", auditLog.getId(), recordBytes);
+            return false;
+        }
+
+        long start = System.nanoTime();
+        synchronized (this) {
+            try {
+                if (active.writePosition + recordBytes > segmentSize) {
+                    if (segments.size() >= maxSegments) {
+                        rejectedCounter.increment();
+                        log.warn("审计预写日志分段数已达上限 {}，拒绝写入，ID: {}", maxSegments, auditLog.getId());
+                        return false;
+                    }
+                    rotate();
+                }
+
+                MappedByteBuffer buffer = active.buffer;
+                int position = active.writePosition;
+                // 先写内容和校验和，最后写长度，长度非0即表示记录完整
+                buffer.putInt(position + 4, (int) crc.getValue());
+                for (int i = 0; i < payload.length; i++) {
+                    buffer.put(position + RECORD_HEADER_BYTES + i, payload[i]);
+                }
+                buffer.putInt(position, payload.length);
+                if (syncOnAppend) {
+                    buffer.force();
+                }
+                active.writePosition = position + recordBytes;
+            } catch (IOException e) {
+                log.error("审计预写日志写入失败，ID: {}", auditLog.getId(), e);
+                return false;
+            }
+        }
+        appendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        appendedCounter.increment();
+        return true;
+    }
+
+    /**
+     * 从检查点开始读取一批待回放的审计日志
+     *
+     * @param maxRecords 最大条数
+     * @return 读取结果（含读取后的位置）
+     */
+    public ReadResult read(int maxRecords) {
+        List<AuditLog> records = new ArrayList<>(maxRecords);
+        SpoolPosition position = checkpoint;
+
+        while (records.size() < maxRecords) {
+            Segment segment = segments.get(position.getSegment());
+            if (segment == null) {
+                Map.Entry<Long, Segment> next = segments.higherEntry(position.getSegment());
+                if (next == null) {
+                    break;
+                }
+                position = new SpoolPosition(next.getKey(), 0);
+                continue;
+            }
+
+            // 先判断是否已封口再读取写入位置：封口分段的写入位置不会再变化
+            boolean sealed = segment != active;
+            int limit = segment.writePosition;
+            int offset = position.getOffset();
+            if (offset >= limit) {
+                // 当前分段已读完：若已封口则切换到后续分段，否则等待新数据
+                Long nextSeq = segments.higherKey(segment.sequence);
+                if (!sealed || nextSeq == null) {
+                    break;
+                }
+                position = new SpoolPosition(nextSeq, 0);
+                continue;
+            }
+
+            ByteBuffer view = segment.buffer.duplicate();
+            int length = view.getInt(offset);
+            int checksum = view.getInt(offset + 4);
+            byte[] payload = new byte[length];
+            for (int i = 0; i < length; i++) {
+                payload[i] = view.get(offset + RECORD_HEADER_BYTES + i);
+            }
+            position = new SpoolPosition(segment.sequence, offset + RECORD_HEADER_BYTES + length);
+
+            CRC32 crc = new CRC32();
+            crc.update(payload, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                log.error("审计预写日志记录校验失败，跳过，分段: {}, 偏移: {}", segment.sequence, offset);
+                continue;
+            }
+            try {
+                records.add(objectMapper.readValue(payload, AuditLog.class));
+            } catch (IOException e) {
+                log.error("审计预写日志记录解析失败，跳过，分段: {}, 偏移: {}", segment.sequence, offset, e);
+            }
+        }
+        return new ReadResult(records, position);
+    }
+
+    /**
+     * 确认回放位置：持久化检查点，并删除已完全回放的分段
+     *
+     * @param position 已成功回放到的位置
+     * @throws IOException 写检查点失败
+     */
+    public void commit(SpoolPosition position) throws IOException {
+        if (position.equals(checkpoint)) {
+            return;
+        }
+        writeCheckpoint(position);
+        this.checkpoint = position;
+
+        synchronized (this) {
+            for (Segment segment : new ArrayList<>(segments.headMap(position.getSegment()).values())) {
+                if (segment != active) {
+                    segments.remove(segment.sequence);
+                    segment.close();
+                    Files.deleteIfExists(segment.path);
+                    log.debug("审计预写日志分段已回放完毕并删除: {}", segment.path.getFileName());
+                }
+            }
+        }
+    }
+
+    /**
+     * 将当前分段的脏页刷到磁盘
+     */
+    public void force() {
+        Segment current = active;
+        if (current != null) {
+            current.buffer.force();
+        }
+    }
+
+    /**
+     * 启动恢复：加载检查点，校验各分段数据并定位写入位置
+     */
+    private void recover() throws IOException {
+        this.checkpoint = readCheckpoint();
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+
+        for (Path file : files) {
+            long sequence = parseSequence(file);
+            if (sequence < checkpoint.getSegment()) {
+                // 检查点之前的分段已全部回放，上次删除前进程退出
+                Files.deleteIfExists(file);
+                continue;
+            }
+            Segment segment = Segment.open(file, sequence, segmentSize);
+            segment.writePosition = scanValidEnd(segment);
+            segments.put(sequence, segment);
+        }
+
+        if (segments.isEmpty()) {
+            long sequence = Math.max(checkpoint.getSegment(), 1L);
+            Segment segment = Segment.open(segmentPath(sequence), sequence, segmentSize);
+            segments.put(sequence, segment);
+        }
+        this.active = segments.lastEntry().getValue();
+        if (segments.firstKey() > checkpoint.getSegment()) {
+            this.checkpoint = new SpoolPosition(segments.firstKey(), 0);
+        }
+
+        log.info("审计日志本地预写日志已打开，目录: {}, 分段数: {}, 检查点: {}",
+                directory.toAbsolutePath(), segments.size(), checkpoint);
+    }
+
+    /**
+     * 扫描分段中连续有效记录的末尾位置
+     */
+    private int scanValidEnd(Segment segment) {
+        ByteBuffer view = segment.buffer.duplicate();
+        int offset = 0;
+        while (offset + RECORD_HEADER_BYTES <= segmentSize) {
+            int length = view.getInt(offset);
+            // 按剩余空间比较，避免崩溃留下的超大长度值在相加时溢出
+            if (length <= 0 || length > segmentSize - offset - RECORD_HEADER_BYTES) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            for (int i = 0; i < length; i++) {
+                payload[i] = view.get(offset + RECORD_HEADER_BYTES + i);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload, 0, length);
+            if ((int) crc.getValue() != view.getInt(offset + 4)) {
+                log.warn("审计预写日志分段 {} 在偏移 {} 处存在不完整记录，从此处截断", segment.sequence, offset);
+                // 清除长度字段，避免回放时误读残留数据
+                segment.buffer.putInt(offset, 0);
+                break;
+            }
+            offset += RECORD_HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    private void rotate() throws IOException {
+        active.buffer.force();
+        long sequence = active.sequence + 1;
+        Segment segment = Segment.open(segmentPath(sequence), sequence, segmentSize);
+        segments.put(sequence, segment);
+        this.active = segment;
+        log.debug("审计预写日志切换到新分段: {}", segment.path.getFileName());
+    }
+
+    private SpoolPosition readCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            return new SpoolPosition(0L, 0);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < 16) {
+            log.warn("审计预写日志检查点文件损坏，从头回放");
+            return new SpoolPosition(0L, 0);
+        }
+        long segment = buffer.getLong();
+        int offset = buffer.getInt();
+        int checksum = buffer.getInt();
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, 12);
+        if ((int) crc.getValue() != checksum) {
+            log.warn("审计预写日志检查点校验失败，从头回放");
+            return new SpoolPosition(0L, 0);
+        }
+        return new SpoolPosition(segment, offset);
+    }
+
+    private void writeCheckpoint(SpoolPosition position) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(position.getSegment());
+        buffer.putInt(position.getOffset());
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, 12);
+        buffer.putInt((int) crc.getValue());
+
+        // 先写临时文件再原子替换，避免检查点写一半
+        Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        Files.write(tmp, buffer.array());
+        Files.move(tmp, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path segmentPath(long sequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, sequence, SEGMENT_SUFFIX));
+    }
+
+    private static long parseSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    /**
+     * 分段文件
+     */
+    private static final class Segment {
+
+        private final long sequence;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private volatile int writePosition;
+
+        private Segment(long sequence, Path path, MappedByteBuffer buffer) {
+            this.sequence = sequence;
+            this.path = path;
+            this.buffer = buffer;
+        }
+
+        private static Segment open(Path path, long sequence, int size) throws IOException {
+            try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+                if (file.length() < size) {
+                    file.setLength(size);
+                }
+                // 映射建立后即使关闭文件句柄，映射仍然有效
+                MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+                return new Segment(sequence, path, buffer);
+            }
+        }
+
+        private void close() {
+            buffer.force();
+            // MappedByteBuffer 无法显式解除映射，由GC回收
+        }
+    }
+
+    /**
+     * 批量读取结果
+     */
+    public static final class ReadResult {
+
+        private final List<AuditLog> records;
+        private final SpoolPosition position;
+
+        private ReadResult(List<AuditLog> records, SpoolPosition position) {
+            this.records = records;
+            this.position = position;
+        }
+
+        public List<AuditLog> getRecords() {
+            return records;
+        }
+
+        public SpoolPosition getPosition() {
+            return position;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.crm.system.modules.audit.spool;
+
+import com.crm.system.modules.audit.writer.AuditLogBatchWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 审计预写日志回放线程
+ *
+ * <p>从检查点开始成批读取预写日志，幂等写入数据库后再推进检查点：</p>
+ * <ul>
+ *   <li>写入成功：推进检查点，已回放完的分段随之删除</li>
+ *   <li>写入失败（如数据库不可用）：检查点不动，按指数退避后重试同一批</li>
+ *   <li>进程在写库后、推进检查点前崩溃：重启后重放该批，由 ON DUPLICATE KEY UPDATE 去重</li>
+ * </ul>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditSpoolDrainer {
+
+    /**
+     * 关闭时等待回放线程退出的最长时间（毫秒）
+     */
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30000;
+
+    @Value("${audit.spool.drain.batch-size:500}")
+    private int batchSize;
+
+    @Value("${audit.spool.drain.idle-ms:20}")
+    private long idleMs;
+
+    @Value("${audit.spool.drain.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+
+    @Value("${audit.spool.force-interval-ms:1000}")
+    private long forceIntervalMs;
+
+    private final AuditSpool auditSpool;
+    private final AuditLogBatchWriter auditLogBatchWriter;
+    private final MeterRegistry meterRegistry;
+
+    private Thread drainThread;
+    private volatile boolean running;
+    private Counter drainedCounter;
+
+    @PostConstruct
+    public void start() {
+        if (!auditSpool.isEnabled()) {
+            return;
+        }
+        this.drainedCounter = Counter.builder("audit.spool.drained")
+                .description("从审计预写日志回放入库的记录数")
+                .register(meterRegistry);
+
+        this.running = true;
+        this.drainThread = new Thread(this::drainLoop, "audit-spool-drainer");
+        this.drainThread.setDaemon(true);
+        this.drainThread.start();
+        log.info("审计预写日志回放线程已启动，batchSize: {}", batchSize);
+    }
+
+    /**
+     * 应用关闭时停止回放
+     *
+     * <p>未回放的数据保留在预写日志中，下次启动后继续回放</p>
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (drainThread == null) {
+            return;
+        }
+        running = false;
+        drainThread.interrupt();
+        try {
+            drainThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        auditSpool.force();
+        log.info("审计预写日志回放线程已关闭");
+    }
+
+    /**
+     * 回放线程主循环
+     */
+    private void drainLoop() {
+        long backoffMs = idleMs;
+        long lastForce = System.currentTimeMillis();
+
+        while (running) {
+            try {
+                // 未开启逐条同步时，定期把脏页刷到磁盘，限制宕机时的数据丢失窗口
+                long now = System.currentTimeMillis();
+                if (now - lastForce >= forceIntervalMs) {
+                    auditSpool.force();
+                    lastForce = now;
+                }
+
+                AuditSpool.ReadResult result = auditSpool.read(batchSize);
+                if (result.getRecords().isEmpty()) {
+                    // 可能只是跳过了损坏记录，同样推进检查点
+                    auditSpool.commit(result.getPosition());
+                    TimeUnit.MILLISECONDS.sleep(idleMs);
+                    continue;
+                }
+
+                auditLogBatchWriter.writeReplayed(result.getRecords());
+                auditSpool.commit(result.getPosition());
+                drainedCounter.increment(result.getRecords().size());
+                backoffMs = idleMs;
+            } catch (InterruptedException e) {
+                log.debug("审计预写日志回放线程被中断");
+            } catch (Exception e) {
+                backoffMs = Math.min(maxBackoffMs, Math.max(backoffMs * 2, 100));
+                log.error("审计预写日志回放失败，{}ms 后重试", backoffMs, e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    log.debug("审计预写日志回放线程被中断");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.crm.system.modules.audit.spool;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 预写日志位置（分段序号 + 分段内偏移量）
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@AllArgsConstructor
+public class SpoolPosition {
+
+    /**
+     * 分段序号
+     */
+    private final long segment;
+
+    /**
+     * 分段内偏移量（字节）
+     */
+    private final int offset;
+}
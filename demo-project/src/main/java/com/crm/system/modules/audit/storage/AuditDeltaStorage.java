@@ -0,0 +1,291 @@
+package com.crm.system.modules.audit.storage;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.crm.system.modules.audit.domain.AuditLog;
+import com.crm.system.modules.audit.event.AuditEvent;
+import com.crm.system.modules.audit.mapper.AuditLogMapper;
+import com.crm.system.modules.audit.util.FieldChange;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 审计日志增量存储
+ *
+ * <p>DELTA 模式下，UPDATE 操作只记录变更字段的前后值（delta_data），不再写入完整的
+ * before_data/after_data。为了控制重建成本，每个业务数据每隔 snapshot-interval 次变更写入一次全量快照；
+ * 进程重启后每个业务数据的首次变更同样写全量快照，保证增量链总能找到起点。
+ * 审计表按 operate_time 按月分区，跨月后的首次变更也写全量快照，使增量链不跨分区，
+ * 旧分区归档删除后新分区内的增量仍可重建。</p>
+ *
+ * <p>CREATE/DELETE 操作本身只有一侧数据，始终按全量存储，也作为后续增量的起点。</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditDeltaStorage {
+
+    private static final TypeReference<LinkedHashMap<String, List<Object>>> DELTA_TYPE =
+            new TypeReference<LinkedHashMap<String, List<Object>>>() {};
+
+    private static final TypeReference<LinkedHashMap<String, Object>> DATA_TYPE =
+            new TypeReference<LinkedHashMap<String, Object>>() {};
+
+    @Value("${audit.storage.mode:FULL}")
+    private AuditLog.StorageMode storageMode;
+
+    @Value("${audit.storage.snapshot-interval:20}")
+    private int snapshotInterval;
+
+    @Value("${audit.storage.tracked-businesses:10000}")
+    private int trackedBusinesses;
+
+    private final AuditLogMapper auditLogMapper;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 每个业务数据上次全量快照的月份和此后的增量条数（LRU，被淘汰的业务下次变更时写全量快照）
+     */
+    private Map<String, SnapshotTrack> deltasSinceSnapshot;
+
+    @PostConstruct
+    public void init() {
+        this.deltasSinceSnapshot = new LinkedHashMap<String, SnapshotTrack>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SnapshotTrack> eldest) {
+                return size() > trackedBusinesses;
+            }
+        };
+        log.info("审计日志存储模式: {}", storageMode);
+    }
+
+    /**
+     * 按存储模式压缩审计日志
+     *
+     * <p>需要写增量时，清空完整数据并填充 delta_data；否则保持全量不变。
+     * 缺少变更前或变更后数据（如未采集前镜像、前镜像采集失败）或没有字段变更时，
+     * 增量无法重建出完整数据，同样按全量存储。</p>
+     *
+     * @param auditLog 已填充完整数据的审计日志
+     * @param changes  字段变更列表
+     */
+    public void compact(AuditLog auditLog, List<FieldChange> changes) {
+        if (storageMode != AuditLog.StorageMode.DELTA
+                || !AuditEvent.OperationType.UPDATE.name().equals(auditLog.getOperationType())
+                || auditLog.getBusinessId() == null) {
+            return;
+        }
+        if (isNullJson(auditLog.getBeforeData()) || isNullJson(auditLog.getAfterData())
+                || changes == null || changes.isEmpty()) {
+            return;
+        }
+        if (snapshotDue(auditLog.getModuleName() + ":" + auditLog.getBusinessId(), auditLog.getOperateTime())) {
+            return;
+        }
+
+        Map<String, List<Object>> delta = new LinkedHashMap<>(changes.size() * 2);
+        for (FieldChange change : changes) {
+            delta.put(change.getField(), Arrays.asList(change.getOldValue(), change.getNewValue()));
+        }
+        try {
+            auditLog.setDeltaData(objectMapper.writeValueAsString(delta));
+        } catch (JsonProcessingException e) {
+            log.error("增量数据序列化失败，按全量存储，业务ID: {}", auditLog.getBusinessId(), e);
+            return;
+        }
+        auditLog.setStorageMode(AuditLog.StorageMode.DELTA.name());
+        auditLog.setBeforeData(null);
+        auditLog.setAfterData(null);
+    }
+
+    /**
+     * 解析增量数据
+     *
+     * @param deltaData 增量数据JSON
+     * @return 字段名到 [变更前, 变更后] 的映射
+     */
+    public Map<String, List<Object>> parseDelta(String deltaData) {
+        if (deltaData == null || deltaData.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return objectMapper.readValue(deltaData, DELTA_TYPE);
+        } catch (JsonProcessingException e) {
+            log.error("增量数据解析失败: {}", deltaData, e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * 为增量存储的审计日志重建完整的变更前/变更后数据
+     *
+     * @param auditLog 审计日志
+     * @see #restore(Collection)
+     */
+    public void restore(AuditLog auditLog) {
+        restore(Collections.singletonList(auditLog));
+    }
+
+    /**
+     * 批量重建增量存储的审计日志的完整数据
+     *
+     * <p>按业务数据分组，每组查询一次最早一条之前最近的全量快照，再一次性读取快照到最后一条之间的全部记录：
+     * 遇到全量快照时以其数据为新起点，遇到增量时依次应用，经过待重建的记录时分别取出变更前/变更后数据。
+     * 全量存储的审计日志原样返回。</p>
+     *
+     * <p>找不到全量快照（如快照所在分区已归档删除）时无法得到完整数据，此时不拼凑结果：
+     * before_data/after_data 保持为空并标记 {@link AuditLog#getRestoreIncomplete()}，调用方可改用 delta_data。</p>
+     *
+     * @param auditLogs 审计日志
+     */
+    public void restore(Collection<AuditLog> auditLogs) {
+        Map<String, List<AuditLog>> groups = new LinkedHashMap<>();
+        for (AuditLog auditLog : auditLogs) {
+            if (AuditLog.StorageMode.DELTA.name().equals(auditLog.getStorageMode())) {
+                groups.computeIfAbsent(auditLog.getModuleName() + ":" + auditLog.getBusinessId(),
+                        key -> new ArrayList<>()).add(auditLog);
+            }
+        }
+        for (List<AuditLog> group : groups.values()) {
+            restoreGroup(group);
+        }
+    }
+
+    private void restoreGroup(List<AuditLog> group) {
+        group.sort(Comparator.comparing(AuditLog::getId));
+        AuditLog first = group.get(0);
+        Long lastId = group.get(group.size() - 1).getId();
+
+        AuditLog snapshot = auditLogMapper.selectOne(new LambdaQueryWrapper<AuditLog>()
+                .select(AuditLog::getId)
+                .eq(AuditLog::getModuleName, first.getModuleName())
+                .eq(AuditLog::getBusinessId, first.getBusinessId())
+                .eq(AuditLog::getStorageMode, AuditLog.StorageMode.FULL.name())
+                .lt(AuditLog::getId, first.getId())
+                .orderByDesc(AuditLog::getId)
+                .last("LIMIT 1"));
+        Long fromId = snapshot != null ? snapshot.getId() : null;
+
+        List<AuditLog> chain = auditLogMapper.selectList(new LambdaQueryWrapper<AuditLog>()
+                .select(AuditLog::getId, AuditLog::getStorageMode, AuditLog::getBeforeData,
+                        AuditLog::getAfterData, AuditLog::getDeltaData)
+                .eq(AuditLog::getModuleName, first.getModuleName())
+                .eq(AuditLog::getBusinessId, first.getBusinessId())
+                .ge(fromId != null, AuditLog::getId, fromId)
+                .le(AuditLog::getId, lastId)
+                .orderByAsc(AuditLog::getId));
+
+        Map<Long, AuditLog> targets = new HashMap<>(group.size() * 2);
+        group.forEach(auditLog -> targets.put(auditLog.getId(), auditLog));
+        Map<String, Object> state = new LinkedHashMap<>();
+        boolean based = false;
+        for (AuditLog row : chain) {
+            if (AuditLog.StorageMode.FULL.name().equals(row.getStorageMode())) {
+                state.clear();
+                state.putAll(parseData(row.getAfterData() != null ? row.getAfterData() : row.getBeforeData()));
+                based = true;
+                continue;
+            }
+            AuditLog target = targets.remove(row.getId());
+            if (target == null) {
+                apply(state, parseDelta(row.getDeltaData()));
+                continue;
+            }
+            if (!based) {
+                markIncomplete(target);
+                apply(state, parseDelta(target.getDeltaData()));
+                continue;
+            }
+            try {
+                target.setBeforeData(objectMapper.writeValueAsString(state));
+                apply(state, parseDelta(target.getDeltaData()));
+                target.setAfterData(objectMapper.writeValueAsString(state));
+                target.setRestoreIncomplete(false);
+            } catch (JsonProcessingException e) {
+                log.error("重建审计数据序列化失败，审计日志ID: {}", target.getId(), e);
+                markIncomplete(target);
+            }
+        }
+        // 不在数据库中的记录（如已归档）
+        targets.values().forEach(this::markIncomplete);
+    }
+
+    private void markIncomplete(AuditLog auditLog) {
+        log.warn("未找到全量快照，无法重建完整数据，审计日志ID: {}", auditLog.getId());
+        auditLog.setBeforeData(null);
+        auditLog.setAfterData(null);
+        auditLog.setRestoreIncomplete(true);
+    }
+
+    private static boolean isNullJson(String json) {
+        return json == null || json.isEmpty() || "null".equals(json);
+    }
+
+    private static void apply(Map<String, Object> state, Map<String, List<Object>> delta) {
+        for (Map.Entry<String, List<Object>> entry : delta.entrySet()) {
+            List<Object> values = entry.getValue();
+            state.put(entry.getKey(), values.size() > 1 ? values.get(1) : null);
+        }
+    }
+
+    private Map<String, Object> parseData(String json) {
+        if (json == null || json.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return objectMapper.readValue(json, DATA_TYPE);
+        } catch (JsonProcessingException e) {
+            log.error("全量快照解析失败: {}", json, e);
+            return Collections.emptyMap();
+        }
+    }
+
+    /**
+     * 判断本次变更是否需要写全量快照，并更新计数
+     *
+     * <p>未跟踪、达到 snapshot-interval，或上次快照在更早的月份（分区）时需要写全量快照</p>
+     */
+    private synchronized boolean snapshotDue(String businessKey, LocalDateTime operateTime) {
+        YearMonth month = YearMonth.from(operateTime != null ? operateTime : LocalDateTime.now());
+        SnapshotTrack track = deltasSinceSnapshot.get(businessKey);
+        if (track == null || !track.month.equals(month) || track.deltas + 1 >= snapshotInterval) {
+            deltasSinceSnapshot.put(businessKey, new SnapshotTrack(month));
+            return true;
+        }
+        track.deltas++;
+        return false;
+    }
+
+    /**
+     * 业务数据的快照跟踪状态
+     */
+    private static final class SnapshotTrack {
+
+        private final YearMonth month;
+        private int deltas;
+
+        SnapshotTrack(YearMonth month) {
+            this.month = month;
+        }
+    }
+}
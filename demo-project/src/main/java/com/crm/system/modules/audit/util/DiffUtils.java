@@ -2,36 +2,52 @@ package com.crm.system.modules.audit.util;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.*;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
  * 数据对比工具类
  *
  * <p>用于对比两个对象的差异，识别发生变化的字段</p>
  *
+ * <p>每对（变更前类型, 变更后类型）首次对比时编译一份对比方案并缓存：
+ * 系统字段在编译时即被排除，两侧属性按名称配对为预编译的读取器数组。
+ * 之后的对比只是逐字段读取并比较，除了返回的变更列表外不产生额外对象。</p>
+ *
  * @author AI Assistant
  * @since 1.0.0
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class DiffUtils {
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
-
     /**
      * 需要忽略的系统字段
      */
-    private static final Set<String> IGNORED_FIELDS = Set.of(
+    private static final Set<String> IGNORED_FIELDS = new HashSet<>(Arrays.asList(
             "createTime",
             "updateTime",
             "version",
-            "isDeleted",
-            "createTime",
-            "updateTime"
-    );
+            "isDeleted"
+    ));
+
+    private final ObjectMapper objectMapper;
+
+    private final Map<Class<?>, Map<Class<?>, DiffPlan>> plans = new ConcurrentHashMap<>();
 
     /**
      * 对比两个对象的差异
@@ -41,55 +57,36 @@ public class DiffUtils {
      * @return 发生变化的字段列表
      */
     public List<String> diffFields(Object before, Object after) {
-        if (before == null || after == null) {
+        List<FieldChange> changes = diff(before, after);
+        if (changes.isEmpty()) {
             return Collections.emptyList();
         }
-
-        try {
-            // 将对象转换为Map
-            Map<String, Object> beforeMap = convertToMap(before);
-            Map<String, Object> afterMap = convertToMap(after);
-
-            // 对比差异
-            List<String> changedFields = new ArrayList<>();
-            for (Map.Entry<String, Object> entry : afterMap.entrySet()) {
-                String field = entry.getKey();
-                Object afterValue = entry.getValue();
-
-                // 忽略系统字段
-                if (IGNORED_FIELDS.contains(field)) {
-                    continue;
-                }
-
-                Object beforeValue = beforeMap.get(field);
-
-                // 对比值是否相同
-                if (!Objects.equals(beforeValue, afterValue)) {
-                    changedFields.add(field);
-                }
-            }
-
-            return changedFields;
-        } catch (Exception e) {
-            log.error("数据对比失败", e);
-            return Collections.emptyList();
+        List<String> changedFields = new ArrayList<>(changes.size());
+        for (FieldChange change : changes) {
+            changedFields.add(change.getField());
         }
+        return changedFields;
     }
 
     /**
-     * 将对象转换为Map
+     * 对比两个对象的差异，返回字段变更前后的值
      *
-     * @param obj 对象
-     * @return Map
+     * <p>以变更后对象的属性为准；变更前对象没有同名属性时，变更前的值视为null</p>
+     *
+     * @param before 变更前的对象
+     * @param after  变更后的对象
+     * @return 字段变更列表
      */
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> convertToMap(Object obj) {
+    public List<FieldChange> diff(Object before, Object after) {
+        if (before == null || after == null) {
+            return Collections.emptyList();
+        }
+
         try {
-            // 使用Jackson将对象转换为Map
-            return OBJECT_MAPPER.convertValue(obj, Map.class);
-        } catch (IllegalArgumentException e) {
-            log.error("对象转换Map失败: {}", obj.getClass().getName(), e);
-            return Collections.emptyMap();
+            return plan(before.getClass(), after.getClass()).diff(before, after);
+        } catch (Exception e) {
+            log.error("数据对比失败", e);
+            return Collections.emptyList();
         }
     }
 
@@ -105,10 +102,89 @@ public class DiffUtils {
         }
 
         try {
-            return OBJECT_MAPPER.writeValueAsString(obj);
+            return objectMapper.writeValueAsString(obj);
         } catch (JsonProcessingException e) {
             log.error("对象序列化失败: {}", obj.getClass().getName(), e);
             return null;
         }
     }
+
+    private DiffPlan plan(Class<?> beforeType, Class<?> afterType) {
+        return plans.computeIfAbsent(beforeType, type -> new ConcurrentHashMap<>(4))
+                .computeIfAbsent(afterType, type -> DiffPlan.compile(beforeType, afterType));
+    }
+
+    /**
+     * 值比较：跨类型对比时，数值按数值大小比较（如 Integer 与 Long）
+     */
+    private static boolean valueEquals(Object before, Object after) {
+        if (Objects.equals(before, after)) {
+            return true;
+        }
+        if (before instanceof Number && after instanceof Number) {
+            if (before instanceof BigDecimal && after instanceof BigDecimal) {
+                return ((BigDecimal) before).compareTo((BigDecimal) after) == 0;
+            }
+            if (before.getClass() != after.getClass()) {
+                return new BigDecimal(before.toString()).compareTo(new BigDecimal(after.toString())) == 0;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 一对类型的对比方案
+     */
+    private static final class DiffPlan {
+
+        private final String[] fields;
+        private final Function<Object, Object>[] beforeGetters;
+        private final Function<Object, Object>[] afterGetters;
+
+        private DiffPlan(String[] fields, Function<Object, Object>[] beforeGetters,
+                         Function<Object, Object>[] afterGetters) {
+            this.fields = fields;
+            this.beforeGetters = beforeGetters;
+            this.afterGetters = afterGetters;
+        }
+
+        @SuppressWarnings("unchecked")
+        private static DiffPlan compile(Class<?> beforeType, Class<?> afterType) {
+            Map<String, Function<Object, Object>> beforeAccessors = PropertyAccessors.getters(beforeType);
+            Map<String, Function<Object, Object>> afterAccessors = PropertyAccessors.getters(afterType);
+
+            List<String> fields = new ArrayList<>(afterAccessors.size());
+            for (String field : afterAccessors.keySet()) {
+                if (!IGNORED_FIELDS.contains(field)) {
+                    fields.add(field);
+                }
+            }
+
+            int size = fields.size();
+            Function<Object, Object>[] beforeGetters = new Function[size];
+            Function<Object, Object>[] afterGetters = new Function[size];
+            for (int i = 0; i < size; i++) {
+                beforeGetters[i] = beforeAccessors.get(fields.get(i));
+                afterGetters[i] = afterAccessors.get(fields.get(i));
+            }
+            log.debug("编译对比方案: {} -> {}，对比字段数: {}",
+                    beforeType.getSimpleName(), afterType.getSimpleName(), size);
+            return new DiffPlan(fields.toArray(new String[0]), beforeGetters, afterGetters);
+        }
+
+        private List<FieldChange> diff(Object before, Object after) {
+            List<FieldChange> changes = null;
+            for (int i = 0; i < fields.length; i++) {
+                Object afterValue = afterGetters[i].apply(after);
+                Object beforeValue = beforeGetters[i] != null ? beforeGetters[i].apply(before) : null;
+                if (!valueEquals(beforeValue, afterValue)) {
+                    if (changes == null) {
+                        changes = new ArrayList<>(4);
+                    }
+                    changes.add(new FieldChange(fields[i], beforeValue, afterValue));
+                }
+            }
+            return changes != null ? changes : Collections.emptyList();
+        }
+    }
 }
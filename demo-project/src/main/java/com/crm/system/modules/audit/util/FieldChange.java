@@ -0,0 +1,32 @@
+package com.crm.system.modules.audit.util;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 字段变更
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class FieldChange {
+
+    /**
+     * 字段名
+     */
+    private final String field;
+
+    /**
+     * 变更前的值
+     */
+    private final Object oldValue;
+
+    /**
+     * 变更后的值
+     */
+    private final Object newValue;
+}
@@ -1,8 +1,13 @@
 package com.crm.system.modules.audit.util;
 
-import com.crm.system.common.security.JwtUtil;
+import com.crm.system.common.security.CrmPrincipal;
+import com.crm.system.common.security.TokenVerifier;
 import com.crm.system.modules.audit.event.AuditEvent;
+import com.crm.system.modules.audit.event.AuditRequestSnapshot;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -20,8 +25,14 @@ import java.util.UUID;
  */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class SecurityUtils {
 
+    @Value("${jwt.header:Authorization}")
+    private String tokenHeader;
+
+    private final TokenVerifier tokenVerifier;
+
     /**
      * 从当前请求中获取操作人信息
      *
@@ -29,57 +40,87 @@ public class SecurityUtils {
      */
     public AuditEvent.OperatorInfo getCurrentOperator() {
         try {
-            HttpServletRequest request = getCurrentRequest();
-            String token = extractToken(request);
-
-            if (token != null && JwtUtil.validateToken(token)) {
-                Long userId = JwtUtil.getUserIdFromToken(token);
-                String username = JwtUtil.getUsernameFromToken(token);
-
-                return AuditEvent.OperatorInfo.builder()
-                        .userId(userId)
-                        .username(username)
-                        .build();
+            // 登录用户由 JWT 认证过滤器在请求开始时解析
+            CrmPrincipal principal = CrmPrincipal.current();
+            if (principal != null) {
+                return toOperator(principal);
             }
         } catch (Exception e) {
             log.warn("获取当前操作人信息失败", e);
         }
+        return systemOperator();
+    }
 
-        // 返回系统用户作为默认值
-        return AuditEvent.OperatorInfo.builder()
-                .userId(0L)
-                .username("SYSTEM")
-                .build();
+    /**
+     * 复制当前请求中审计需要的原始信息（请求线程中调用，不做解析）
+     *
+     * @return 请求快照；不在HTTP请求中时返回null
+     */
+    public AuditRequestSnapshot captureRequest() {
+        ServletRequestAttributes attributes =
+                (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return AuditRequestSnapshot.capture(attributes.getRequest(), CrmPrincipal.current(), tokenHeader);
     }
 
     /**
-     * 获取客户端IP地址
+     * 根据请求快照解析操作人（异步线程中调用）
      *
-     * @return IP地址
+     * @param snapshot 请求快照
+     * @return 操作人信息
      */
-    public String getClientIp() {
-        HttpServletRequest request = getCurrentRequest();
+    public AuditEvent.OperatorInfo resolveOperator(AuditRequestSnapshot snapshot) {
+        if (snapshot == null) {
+            return systemOperator();
+        }
+        if (snapshot.getPrincipal() != null) {
+            return toOperator(snapshot.getPrincipal());
+        }
+        // 认证过滤器未解析出登录用户时（如未经过滤器链的调用），在此验证原始 Token
+        Claims claims = tokenVerifier.verify(tokenVerifier.extractToken(snapshot.getAuthorization()));
+        if (claims != null) {
+            return toOperator(CrmPrincipal.of(claims));
+        }
+        return systemOperator();
+    }
 
-        // 优先从X-Forwarded-For获取（代理情况）
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
-            // 多次反向代理后会有多个IP值，第一个才是真实IP
-            int index = ip.indexOf(',');
-            if (index != -1) {
-                return ip.substring(0, index);
-            }
-            return ip;
+    /**
+     * 根据请求快照解析客户端IP（异步线程中调用）
+     *
+     * @param snapshot 请求快照
+     * @return IP地址
+     */
+    public String resolveClientIp(AuditRequestSnapshot snapshot) {
+        if (snapshot == null) {
+            return null;
         }
+        return clientIp(snapshot.getForwardedFor(), snapshot.getRealIp(), snapshot.getRemoteAddr());
+    }
 
-        // 从X-Real-IP获取
-        ip = request.getHeader("X-Real-IP");
-        if (ip != null && !ip.isEmpty() && !"unknown".equalsIgnoreCase(ip)) {
-            return ip;
+    /**
+     * 根据请求快照获取追踪ID，调用方未传入时生成
+     *
+     * @param snapshot 请求快照
+     * @return 追踪ID
+     */
+    public String resolveTraceId(AuditRequestSnapshot snapshot) {
+        if (snapshot != null && snapshot.getTraceId() != null && !snapshot.getTraceId().isEmpty()) {
+            return snapshot.getTraceId();
         }
+        return generateTraceId();
+    }
 
-        // 直接从RemoteAddr获取
-        ip = request.getRemoteAddr();
-        return "0:0:0:0:0:0:0:1".equals(ip) ? "127.0.0.1" : ip;
+    /**
+     * 获取客户端IP地址
+     *
+     * @return IP地址
+     */
+    public String getClientIp() {
+        HttpServletRequest request = getCurrentRequest();
+        return clientIp(request.getHeader("X-Forwarded-For"), request.getHeader("X-Real-IP"),
+                request.getRemoteAddr());
     }
 
     /**
@@ -96,7 +137,7 @@ public class SecurityUtils {
      *
      * @return HttpServletRequest
      */
-    private HttpServletRequest getCurrentRequest() {
+    public HttpServletRequest getCurrentRequest() {
         ServletRequestAttributes attributes =
                 (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
         if (attributes == null) {
@@ -105,17 +146,41 @@ public class SecurityUtils {
         return attributes.getRequest();
     }
 
+    private static String clientIp(String forwardedFor, String realIp, String remoteAddr) {
+        // 优先从X-Forwarded-For获取（代理情况）
+        if (forwardedFor != null && !forwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(forwardedFor)) {
+            // 多次反向代理后会有多个IP值，第一个才是真实IP
+            int index = forwardedFor.indexOf(',');
+            if (index != -1) {
+                return forwardedFor.substring(0, index);
+            }
+            return forwardedFor;
+        }
+
+        // 从X-Real-IP获取
+        if (realIp != null && !realIp.isEmpty() && !"unknown".equalsIgnoreCase(realIp)) {
+            return realIp;
+        }
+
+        // 直接从RemoteAddr获取
+        return "0:0:0:0:0:0:0:1".equals(remoteAddr) ? "127.0.0.1" : remoteAddr;
+    }
+
+    private static AuditEvent.OperatorInfo toOperator(CrmPrincipal principal) {
+        return AuditEvent.OperatorInfo.builder()
+                .userId(principal.getUserId())
+                .username(principal.getUsername())
+                .roleId(principal.getRoleId())
+                .build();
+    }
+
     /**
-     * 从请求中提取Token
-     *
-     * @param request HTTP请求
-     * @return Token字符串
+     * 系统用户，无法识别操作人时的默认值
      */
-    private String extractToken(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
-        }
-        return bearerToken;
+    private static AuditEvent.OperatorInfo systemOperator() {
+        return AuditEvent.OperatorInfo.builder()
+                .userId(0L)
+                .username("SYSTEM")
+                .build();
     }
 }
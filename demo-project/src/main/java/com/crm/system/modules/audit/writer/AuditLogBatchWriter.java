@@ -0,0 +1,327 @@
+package com.crm.system.modules.audit.writer;
+
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.crm.system.modules.audit.domain.AuditLog;
+import com.crm.system.modules.audit.event.AuditLogPersistedEvent;
+import com.crm.system.modules.audit.mapper.AuditLogMapper;
+import com.crm.system.modules.audit.spool.AuditSpool;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 审计日志批量写入器（组提交）
+ *
+ * <p>审计日志先进入有界缓冲队列，由后台线程攒批后以多行INSERT一次写入数据库：</p>
+ * <ul>
+ *   <li>队列中攒满 batch-size 条时立即刷盘</li>
+ *   <li>未攒满时，最多等待 linger-ms 毫秒后刷盘</li>
+ *   <li>队列已满或写入器已停止时，调用方线程直接同步写入，保证不丢失</li>
+ *   <li>应用关闭时先停止接收，再把队列中剩余数据全部刷盘</li>
+ *   <li>逐条写入仍失败时不丢弃：数据库暂时不可用的记录转存到本地预写日志，由回放线程稍后入库；
+ *       数据本身不合法或预写日志不可用的记录追加到死信文件，供人工排查后补录</li>
+ * </ul>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditLogBatchWriter {
+
+    /**
+     * 空闲时轮询队列的间隔（毫秒），同时决定关闭信号的响应速度
+     */
+    private static final long IDLE_POLL_MILLIS = 100;
+
+    /**
+     * 关闭时等待刷盘线程退出的最长时间（毫秒）
+     */
+    private static final long SHUTDOWN_TIMEOUT_MILLIS = 30000;
+
+    @Value("${audit.writer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${audit.writer.linger-ms:50}")
+    private long lingerMs;
+
+    @Value("${audit.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${audit.writer.dead-letter-file:data/audit-dead-letter.ndjson}")
+    private String deadLetterFile;
+
+    private final AuditLogMapper auditLogMapper;
+    private final AuditSpool auditSpool;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    private BlockingQueue<AuditLog> queue;
+    private Thread flushThread;
+    private volatile boolean running;
+
+    private DistributionSummary batchSizeSummary;
+    private Timer lingerTimer;
+    private Timer flushTimer;
+    private Counter failedCounter;
+    private Counter spooledCounter;
+    private Counter deadLetterCounter;
+
+    @PostConstruct
+    public void start() {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("audit.writer.queue.depth", queue, BlockingQueue::size)
+                .description("审计日志写入队列当前积压数")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("audit.writer.batch.size")
+                .description("每次刷盘的审计日志条数")
+                .register(meterRegistry);
+        this.lingerTimer = Timer.builder("audit.writer.linger")
+                .description("批次从首条日志出队到刷盘的等待时间")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("audit.writer.flush")
+                .description("单次批量写入数据库耗时")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("audit.writer.failed")
+                .description("写入失败的审计日志条数")
+                .register(meterRegistry);
+        this.spooledCounter = Counter.builder("audit.writer.spooled")
+                .description("写入失败后转存到预写日志的审计日志条数")
+                .register(meterRegistry);
+        this.deadLetterCounter = Counter.builder("audit.writer.dead-letter")
+                .description("写入失败后追加到死信文件的审计日志条数")
+                .register(meterRegistry);
+
+        this.running = true;
+        this.flushThread = new Thread(this::flushLoop, "audit-writer");
+        this.flushThread.setDaemon(true);
+        this.flushThread.start();
+
+        log.info("审计日志批量写入器已启动，batchSize: {}, lingerMs: {}, queueCapacity: {}",
+                batchSize, lingerMs, queueCapacity);
+    }
+
+    /**
+     * 提交审计日志，等待批量写入
+     *
+     * <p>ID在提交时预先分配，调用方可以立即拿到审计日志ID</p>
+     *
+     * @param auditLog 审计日志
+     */
+    public void write(AuditLog auditLog) {
+        if (auditLog.getId() == null) {
+            auditLog.setId(IdWorker.getId());
+        }
+
+        if (!running || !queue.offer(auditLog)) {
+            // 队列已满或写入器已停止：由调用方同步写入，保证不丢失
+            log.warn("审计日志写入队列不可用，同步写入，ID: {}", auditLog.getId());
+            flush(Collections.singletonList(auditLog));
+        }
+    }
+
+    /**
+     * 应用关闭时停止接收，并把队列中剩余数据全部刷盘
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        try {
+            flushThread.join(SHUTDOWN_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // 刷盘线程未能及时退出时，由关闭线程兜底写入剩余数据
+        List<AuditLog> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            flush(remaining.subList(from, Math.min(from + batchSize, remaining.size())));
+        }
+        log.info("审计日志批量写入器已关闭");
+    }
+
+    /**
+     * 刷盘线程主循环
+     */
+    private void flushLoop() {
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                AuditLog first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                List<AuditLog> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                long firstTaken = System.nanoTime();
+                long deadline = firstTaken + lingerNanos;
+
+                // 攒批：攒满一批或等待超时即刷盘
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remainingNanos <= 0 || !running) {
+                        break;
+                    }
+                    AuditLog next = queue.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                lingerTimer.record(System.nanoTime() - firstTaken, TimeUnit.NANOSECONDS);
+                flush(batch);
+            } catch (InterruptedException e) {
+                // 关闭期间继续循环，直到队列被清空
+                log.debug("审计日志刷盘线程被中断");
+            } catch (Exception e) {
+                log.error("审计日志刷盘线程异常", e);
+            }
+        }
+    }
+
+    /**
+     * 将一批审计日志写入数据库
+     *
+     * <p>批量写入失败时降级为逐条写入，避免单条异常数据拖累整批；逐条写入仍失败的记录转存，不丢弃</p>
+     *
+     * @param batch 审计日志批次
+     */
+    private void flush(List<AuditLog> batch) {
+        long start = System.nanoTime();
+        List<AuditLog> persisted;
+        try {
+            auditLogMapper.insertBatch(batch);
+            persisted = batch;
+            log.debug("审计日志批量写入成功，条数: {}", batch.size());
+        } catch (Exception e) {
+            log.error("审计日志批量写入失败，降级为逐条写入，条数: {}", batch.size(), e);
+            persisted = new ArrayList<>(batch.size());
+            for (AuditLog auditLog : batch) {
+                try {
+                    auditLogMapper.insert(auditLog);
+                    persisted.add(auditLog);
+                } catch (Exception ex) {
+                    failedCounter.increment();
+                    log.error("审计日志写入失败，ID: {}", auditLog.getId(), ex);
+                    preserve(auditLog, ex);
+                }
+            }
+        }
+        afterFlush(batch, persisted, start);
+    }
+
+    /**
+     * 保留写入失败的审计日志
+     *
+     * <p>数据库暂时不可用时转存到预写日志，由回放线程重试；数据不合法时重试也无济于事，直接进入死信文件</p>
+     *
+     * @param auditLog 审计日志
+     * @param cause    写入失败原因
+     */
+    private void preserve(AuditLog auditLog, Exception cause) {
+        if (!(cause instanceof DataIntegrityViolationException)
+                && auditSpool.isEnabled() && auditSpool.append(auditLog)) {
+            spooledCounter.increment();
+            return;
+        }
+        writeDeadLetter(auditLog);
+    }
+
+    /**
+     * 以 NDJSON 格式追加到死信文件
+     */
+    private synchronized void writeDeadLetter(AuditLog auditLog) {
+        try {
+            Path file = Paths.get(deadLetterFile);
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            byte[] line = (objectMapper.writeValueAsString(auditLog) + "\n").getBytes(StandardCharsets.UTF_8);
+            Files.write(file, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            deadLetterCounter.increment();
+            log.warn("审计日志已写入死信文件，ID: {}, 文件: {}", auditLog.getId(), file.toAbsolutePath());
+        } catch (IOException e) {
+            log.error("审计日志写入死信文件失败，数据丢失，ID: {}", auditLog.getId(), e);
+        }
+    }
+
+    /**
+     * 同步幂等写入一批审计日志，供本地预写日志回放使用
+     *
+     * <p>主键已存在的记录被忽略，因此同一批数据可以安全地重复回放。
+     * 个别记录数据不合法时降级逐条写入，该记录转入死信文件；数据库不可用等其他异常直接抛出，
+     * 由调用方保留数据稍后重试。</p>
+     *
+     * @param batch 审计日志批次
+     */
+    public void writeReplayed(List<AuditLog> batch) {
+        long start = System.nanoTime();
+        List<AuditLog> persisted;
+        try {
+            auditLogMapper.insertIgnoreBatch(batch);
+            persisted = batch;
+        } catch (DataIntegrityViolationException e) {
+            log.error("审计日志回放批量写入存在非法数据，降级为逐条写入，条数: {}", batch.size(), e);
+            persisted = new ArrayList<>(batch.size());
+            for (AuditLog auditLog : batch) {
+                try {
+                    auditLogMapper.insertIgnoreBatch(Collections.singletonList(auditLog));
+                    persisted.add(auditLog);
+                } catch (DataIntegrityViolationException ex) {
+                    failedCounter.increment();
+                    log.error("审计日志数据非法，跳过写入，ID: {}", auditLog.getId(), ex);
+                    writeDeadLetter(auditLog);
+                }
+            }
+        }
+        afterFlush(batch, persisted, start);
+    }
+
+    /**
+     * 记录刷盘指标，并为已落库的记录发布落库事件
+     */
+    private void afterFlush(List<AuditLog> batch, List<AuditLog> persisted, long start) {
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizeSummary.record(batch.size());
+
+        if (!persisted.isEmpty()) {
+            try {
+                eventPublisher.publishEvent(new AuditLogPersistedEvent(new ArrayList<>(persisted)));
+            } catch (Exception e) {
+                log.error("发布审计日志落库事件失败", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.crm.system.modules.customer.cache;
+
+import com.crm.system.common.util.TransactionUtils;
+import com.crm.system.modules.customer.dto.CustomerResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 客户详情两级缓存
+ *
+ * <ul>
+ *   <li>L1：进程内 Caffeine 缓存（W-TinyLFU 淘汰），按条数限制容量</li>
+ *   <li>L2：Redis 缓存（可选），多个节点共享，减少冷启动和 L1 淘汰后的回源</li>
+ *   <li>失效：客户增删改在事务提交后删除 L2 和本节点 L1，
+ *       并通过 Redis 发布订阅通知其他节点删除各自的 L1</li>
+ *   <li>延迟双删：提交前开始的回源可能在首次删除之后才把旧数据回填到缓存，
+ *       因此提交后间隔一段时间再删除一次</li>
+ * </ul>
+ *
+ * <p>Redis 不可用时只记录告警并直接回源数据库，不影响业务</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CustomerCache {
+
+    /**
+     * 本节点标识，用于忽略自己发出的失效通知
+     */
+    private static final String NODE_ID = UUID.randomUUID().toString();
+
+    @Value("${crm.cache.customer.l1-max-size:10000}")
+    private long l1MaxSize;
+
+    @Value("${crm.cache.customer.l1-expire-seconds:300}")
+    private long l1ExpireSeconds;
+
+    @Value("${crm.cache.customer.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    @Value("${crm.cache.customer.redis.ttl-seconds:1800}")
+    private long redisTtlSeconds;
+
+    @Value("${crm.cache.customer.redis.key-prefix:crm:customer:}")
+    private String keyPrefix;
+
+    @Value("${crm.cache.customer.redis.channel:crm:customer:invalidate}")
+    private String channel;
+
+    @Value("${crm.cache.customer.second-delete-delay-ms:1000}")
+    private long secondDeleteDelayMs;
+
+    private final ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<Long, CustomerResponse> localCache;
+    private StringRedisTemplate redisTemplate;
+    private ScheduledExecutorService secondDeleteExecutor;
+
+    private Counter redisHitCounter;
+    private Counter redisMissCounter;
+    private Counter redisErrorCounter;
+    private Timer loadTimer;
+
+    @PostConstruct
+    public void init() {
+        this.localCache = Caffeine.newBuilder()
+                .maximumSize(l1MaxSize)
+                .expireAfterWrite(l1ExpireSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        // 命中率、淘汰数等 L1 指标：cache.gets / cache.evictions / cache.size
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, "customer");
+
+        this.redisHitCounter = Counter.builder("customer.cache.l2.requests")
+                .tag("result", "hit")
+                .description("客户缓存 L2 命中次数")
+                .register(meterRegistry);
+        this.redisMissCounter = Counter.builder("customer.cache.l2.requests")
+                .tag("result", "miss")
+                .description("客户缓存 L2 未命中次数")
+                .register(meterRegistry);
+        this.redisErrorCounter = Counter.builder("customer.cache.l2.errors")
+                .description("客户缓存 L2 访问失败次数")
+                .register(meterRegistry);
+        this.loadTimer = Timer.builder("customer.cache.load")
+                .description("客户缓存未命中时回源数据库耗时")
+                .register(meterRegistry);
+
+        if (redisEnabled) {
+            this.redisTemplate = redisTemplateProvider.getIfAvailable();
+            if (redisTemplate == null) {
+                log.warn("已开启客户缓存 L2，但未找到 Redis 配置，仅使用本地缓存");
+            }
+        }
+        this.secondDeleteExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "customer-cache-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("客户缓存已启动，L1 容量: {}，L2: {}", l1MaxSize, redisTemplate != null ? "Redis" : "未启用");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        secondDeleteExecutor.shutdownNow();
+    }
+
+    /**
+     * 读取客户详情，L1、L2 都未命中时回源并回填
+     *
+     * @param id     客户ID
+     * @param loader 回源函数，客户不存在时应抛出异常
+     * @return 客户详情
+     */
+    public CustomerResponse get(Long id, Function<Long, CustomerResponse> loader) {
+        return localCache.get(id, key -> {
+            CustomerResponse cached = getRemote(key);
+            if (cached != null) {
+                return cached;
+            }
+            CustomerResponse loaded = loadTimer.record(() -> loader.apply(key));
+            putRemote(key, loaded);
+            return loaded;
+        });
+    }
+
+    /**
+     * 在当前事务提交后使客户缓存失效，并通知其他节点；间隔 second-delete-delay-ms 后再删除一次
+     *
+     * @param id 客户ID
+     */
+    public void evictAfterCommit(Long id) {
+        TransactionUtils.afterCommit(() -> {
+            evict(id);
+            scheduleSecondDelete(id);
+        });
+    }
+
+    private void scheduleSecondDelete(Long id) {
+        if (secondDeleteDelayMs <= 0) {
+            return;
+        }
+        try {
+            secondDeleteExecutor.schedule(() -> evict(id), secondDeleteDelayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.debug("应用关闭中，跳过客户缓存二次删除，ID: {}", id);
+        }
+    }
+
+    /**
+     * 使客户缓存失效，并通知其他节点
+     *
+     * @param id 客户ID
+     */
+    public void evict(Long id) {
+        localCache.invalidate(id);
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(keyPrefix + id);
+            redisTemplate.convertAndSend(channel, NODE_ID + ":" + id);
+        } catch (Exception e) {
+            redisErrorCounter.increment();
+            log.warn("客户缓存失效通知发送失败，ID: {}", id, e);
+        }
+    }
+
+    /**
+     * 处理其他节点发来的失效通知，只删除本节点 L1
+     *
+     * @param message 通知内容（节点标识:客户ID）
+     */
+    public void onInvalidateMessage(String message) {
+        int separator = message.lastIndexOf(':');
+        if (separator < 0 || NODE_ID.equals(message.substring(0, separator))) {
+            return;
+        }
+        try {
+            localCache.invalidate(Long.valueOf(message.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("忽略无法识别的客户缓存失效通知: {}", message);
+        }
+    }
+
+    /**
+     * 失效通知频道
+     */
+    public String getChannel() {
+        return channel;
+    }
+
+    private CustomerResponse getRemote(Long id) {
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(keyPrefix + id);
+            if (json == null) {
+                redisMissCounter.increment();
+                return null;
+            }
+            redisHitCounter.increment();
+            return objectMapper.readValue(json, CustomerResponse.class);
+        } catch (Exception e) {
+            redisErrorCounter.increment();
+            log.warn("读取客户缓存 L2 失败，ID: {}", id, e);
+            return null;
+        }
+    }
+
+    private void putRemote(Long id, CustomerResponse response) {
+        if (redisTemplate == null || response == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(keyPrefix + id, objectMapper.writeValueAsString(response),
+                    redisTtlSeconds, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            redisErrorCounter.increment();
+            log.warn("写入客户缓存 L2 失败，ID: {}", id, e);
+        }
+    }
+}
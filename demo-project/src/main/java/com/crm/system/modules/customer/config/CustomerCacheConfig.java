@@ -0,0 +1,61 @@
+package com.crm.system.modules.customer.config;
+
+import com.crm.system.modules.customer.cache.CustomerCache;
+import com.crm.system.modules.customer.search.CustomerSearchIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 客户缓存失效通知订阅配置
+ *
+ * <p>开启 L2 时订阅失效通知频道，收到其他节点的通知后删除本节点 L1；
+ * 同一频道还承载客户搜索索引的同步通知，按前缀分发给搜索索引。
+ * 本类是普通配置类，解析时 Redis 自动配置尚未注册连接工厂，因此不能用
+ * {@code @ConditionalOnBean} 判断，改为在创建时按需获取连接工厂</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "crm.cache.customer.redis", name = "enabled", havingValue = "true")
+public class CustomerCacheConfig {
+
+    /**
+     * 客户缓存失效通知监听容器
+     *
+     * @param connectionFactoryProvider Redis 连接工厂
+     * @param customerCache             客户缓存
+     * @param customerSearchIndex       客户搜索索引
+     * @return 监听容器，未配置 Redis 时为null（不注册）
+     */
+    @Bean
+    public RedisMessageListenerContainer customerCacheListenerContainer(
+            ObjectProvider<RedisConnectionFactory> connectionFactoryProvider, CustomerCache customerCache,
+            CustomerSearchIndex customerSearchIndex) {
+        RedisConnectionFactory connectionFactory = connectionFactoryProvider.getIfAvailable();
+        if (connectionFactory == null) {
+            log.warn("已开启客户缓存 L2，但未找到 Redis 连接工厂，不订阅失效通知");
+            return null;
+        }
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            String body = new String(message.getBody(), StandardCharsets.UTF_8);
+            if (customerSearchIndex.isSyncMessage(body)) {
+                customerSearchIndex.onSyncMessage(body);
+            } else {
+                customerCache.onInvalidateMessage(body);
+            }
+        }, new ChannelTopic(customerCache.getChannel()));
+        return container;
+    }
+}
@@ -0,0 +1,49 @@
+package com.crm.system.modules.customer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 客户批量导入线程池配置
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Configuration
+public class CustomerImportConfig {
+
+    @Value("${crm.customer.import.concurrency:2}")
+    private int concurrency;
+
+    @Value("${crm.customer.import.queue-capacity:20}")
+    private int queueCapacity;
+
+    /**
+     * 客户导入线程池
+     *
+     * <ul>
+     *   <li>线程数即同时执行的导入任务数，避免大批量导入占满数据库连接</li>
+     *   <li>拒绝策略：排队已满时拒绝提交，由调用方稍后重试</li>
+     * </ul>
+     *
+     * @return 线程池执行器
+     */
+    @Bean(name = "customerImportExecutor")
+    public Executor customerImportExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("customer-import-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+        return executor;
+    }
+}
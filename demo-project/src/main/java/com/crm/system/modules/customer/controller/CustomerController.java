@@ -1,16 +1,25 @@
 package com.crm.system.modules.customer.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.crm.system.common.result.CursorPageResult;
 import com.crm.system.common.result.PageResult;
 import com.crm.system.common.result.Result;
 import com.crm.system.modules.customer.dto.*;
+import com.crm.system.modules.customer.exporter.CustomerExportWriter;
+import com.crm.system.modules.customer.service.CustomerImportService;
 import com.crm.system.modules.customer.service.CustomerService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.util.List;
 
 /**
  * 客户管理 Controller
@@ -18,6 +27,7 @@ import javax.validation.Valid;
  * @author AI Assistant
  * @since 1.0.0
  */
+@Slf4j
 @Api(tags = "客户管理")
 @RestController
 @RequestMapping("/v1/customers")
@@ -25,6 +35,7 @@ import javax.validation.Valid;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final CustomerImportService customerImportService;
 
     /**
      * 创建客户
@@ -93,4 +104,91 @@ public class CustomerController {
         IPage<CustomerResponse> page = customerService.getCustomerPage(request);
         return Result.success(PageResult.of(page));
     }
+
+    /**
+     * 游标分页查询客户
+     *
+     * @param request 查询请求（cursor 为上一页返回的 nextCursor）
+     * @return 游标分页结果
+     */
+    @ApiOperation("游标分页查询客户")
+    @GetMapping("/cursor")
+    public Result<CursorPageResult<CustomerResponse>> getCustomerCursorPage(CustomerQueryRequest request) {
+        return Result.success(customerService.getCustomerCursorPage(request));
+    }
+
+    /**
+     * 按查询条件流式导出客户
+     *
+     * @param request  查询请求（分页参数不生效）
+     * @param format   导出格式（csv/ndjson，默认 csv）
+     * @param response HTTP 响应
+     * @throws IOException 写入响应头失败
+     */
+    @ApiOperation("导出客户")
+    @GetMapping("/export")
+    public void exportCustomers(CustomerQueryRequest request,
+                                @RequestParam(required = false) String format,
+                                HttpServletResponse response) throws IOException {
+        CustomerExportWriter.Format exportFormat = CustomerExportWriter.Format.parse(format);
+        response.setContentType(exportFormat.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=customers." + exportFormat.getExtension());
+        try {
+            customerService.exportCustomers(request, exportFormat, response.getOutputStream());
+        } catch (IOException e) {
+            // 响应已提交，无法再返回错误信息，多为客户端断开
+            log.warn("客户导出中断: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 批量导入客户
+     *
+     * @param file csv 或 xlsx 文件，首行为表头
+     * @return 导入任务进度（含任务ID）
+     */
+    @ApiOperation("批量导入客户")
+    @PostMapping("/import")
+    public Result<CustomerImportProgress> importCustomers(@RequestParam("file") MultipartFile file) {
+        return Result.success(customerImportService.submitImport(file));
+    }
+
+    /**
+     * 查询客户导入进度
+     *
+     * @param jobId 任务ID
+     * @return 导入任务进度
+     */
+    @ApiOperation("查询客户导入进度")
+    @GetMapping("/import/{jobId}")
+    public Result<CustomerImportProgress> getImportProgress(@PathVariable String jobId) {
+        return Result.success(customerImportService.getImportProgress(jobId));
+    }
+
+    /**
+     * 关键字搜索客户
+     *
+     * @param keyword 关键字（客户名称、联系人或联系电话片段）
+     * @param limit   最多返回条数
+     * @return 按相关度排序的客户列表
+     */
+    @ApiOperation("关键字搜索客户")
+    @GetMapping("/search")
+    public Result<List<CustomerResponse>> searchCustomers(
+            @RequestParam String keyword,
+            @RequestParam(required = false) Integer limit) {
+        return Result.success(customerService.searchCustomers(keyword, limit));
+    }
+
+    /**
+     * 重建客户搜索索引
+     *
+     * @return 索引的客户数
+     */
+    @ApiOperation("重建客户搜索索引")
+    @PostMapping("/search/rebuild")
+    public Result<Integer> rebuildSearchIndex() {
+        return Result.success(customerService.rebuildSearchIndex());
+    }
 }
@@ -0,0 +1,75 @@
+package com.crm.system.modules.customer.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 客户导入任务进度 DTO
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerImportProgress implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 任务ID
+     */
+    private String jobId;
+
+    /**
+     * 文件名
+     */
+    private String fileName;
+
+    /**
+     * 任务状态（RUNNING/COMPLETED/FAILED）
+     */
+    private String status;
+
+    /**
+     * 已读取的数据行数
+     */
+    private Long totalRows;
+
+    /**
+     * 导入成功行数
+     */
+    private Long importedRows;
+
+    /**
+     * 手机号重复跳过的行数
+     */
+    private Long duplicateRows;
+
+    /**
+     * 校验失败的行数
+     */
+    private Long invalidRows;
+
+    /**
+     * 错误明细（最多保留 max-errors 条）
+     */
+    private List<String> errors;
+
+    /**
+     * 开始时间
+     */
+    private LocalDateTime startTime;
+
+    /**
+     * 结束时间
+     */
+    private LocalDateTime endTime;
+}
@@ -1,5 +1,6 @@
 package com.crm.system.modules.customer.dto;
 
+import com.crm.system.common.page.CountMode;
 import lombok.Data;
 
 import java.io.Serializable;
@@ -59,4 +60,19 @@ public class CustomerQueryRequest implements Serializable {
      * 排序方向（asc/desc）
      */
     private String sortOrder = "desc";
+
+    /**
+     * 总数统计模式（EXACT/CACHED/ESTIMATED，为空时使用默认模式）
+     */
+    private CountMode countMode;
+
+    /**
+     * 游标（游标分页时使用，第一页为空）
+     */
+    private String cursor;
+
+    /**
+     * 游标分页时是否统计总数
+     */
+    private Boolean withTotal = false;
 }
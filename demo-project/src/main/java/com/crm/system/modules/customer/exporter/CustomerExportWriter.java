@@ -0,0 +1,197 @@
+package com.crm.system.modules.customer.exporter;
+
+import com.crm.system.common.exception.BusinessException;
+import com.crm.system.modules.customer.domain.Customer;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * 客户导出写入器
+ *
+ * <p>逐行把客户实体直接写到输出流，不构建中间 DTO 列表；缓冲区写满即输出，
+ * 由容器以分块传输发送给客户端</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+public abstract class CustomerExportWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * 导出格式
+     */
+    public enum Format {
+
+        CSV("text/csv;charset=UTF-8", "csv"),
+        NDJSON("application/x-ndjson;charset=UTF-8", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * 解析导出格式，为空时默认 CSV
+         *
+         * @param value 格式名
+         * @return 导出格式
+         */
+        public static Format parse(String value) {
+            if (value == null || value.isEmpty()) {
+                return CSV;
+            }
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new BusinessException("不支持的导出格式: " + value);
+        }
+    }
+
+    /**
+     * 创建写入器
+     *
+     * @param format       导出格式
+     * @param out          输出流
+     * @param objectMapper JSON 序列化器（NDJSON 使用）
+     * @return 写入器
+     * @throws IOException 写入失败
+     */
+    public static CustomerExportWriter create(Format format, OutputStream out, ObjectMapper objectMapper)
+            throws IOException {
+        return format == Format.NDJSON ? new NdjsonWriter(out, objectMapper) : new CsvWriter(out);
+    }
+
+    /**
+     * 写入一个客户
+     *
+     * @param customer 客户
+     * @throws IOException 写入失败（如客户端断开）
+     */
+    public abstract void write(Customer customer) throws IOException;
+
+    private static String formatTime(LocalDateTime time) {
+        return time == null ? null : TIME_FORMATTER.format(time);
+    }
+
+    /**
+     * CSV：带 UTF-8 BOM，便于 Excel 直接打开中文内容
+     */
+    private static final class CsvWriter extends CustomerExportWriter {
+
+        private static final String HEADER = "客户ID,客户名称,联系人姓名,联系电话,联系邮箱,公司地址,客户来源,客户状态,备注,创建时间,更新时间";
+
+        private final Writer writer;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            writer.write('\uFEFF');
+            writer.write(HEADER);
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(Customer customer) throws IOException {
+            writer.write(String.valueOf(customer.getId()));
+            field(customer.getCustomerName());
+            field(customer.getContactName());
+            // 以文本形式输出手机号，避免 Excel 转为科学计数法
+            field(customer.getContactPhone() == null ? null : "\t" + customer.getContactPhone());
+            field(customer.getContactEmail());
+            field(customer.getCompanyAddress());
+            field(customer.getCustomerSource());
+            field(customer.getCustomerStatus());
+            field(customer.getRemark());
+            field(formatTime(customer.getCreateTime()));
+            field(formatTime(customer.getUpdateTime()));
+            writer.write("\r\n");
+        }
+
+        private void field(String value) throws IOException {
+            writer.write(',');
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    /**
+     * NDJSON：每行一个 JSON 对象
+     */
+    private static final class NdjsonWriter extends CustomerExportWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(
+                    new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE));
+            this.generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+        }
+
+        @Override
+        public void write(Customer customer) throws IOException {
+            generator.writeStartObject();
+            generator.writeNumberField("id", customer.getId());
+            generator.writeStringField("customerName", customer.getCustomerName());
+            generator.writeStringField("contactName", customer.getContactName());
+            generator.writeStringField("contactPhone", customer.getContactPhone());
+            generator.writeStringField("contactEmail", customer.getContactEmail());
+            generator.writeStringField("companyAddress", customer.getCompanyAddress());
+            generator.writeStringField("customerSource", customer.getCustomerSource());
+            generator.writeStringField("customerStatus", customer.getCustomerStatus());
+            generator.writeStringField("remark", customer.getRemark());
+            generator.writeStringField("createTime", formatTime(customer.getCreateTime()));
+            generator.writeStringField("updateTime", formatTime(customer.getUpdateTime()));
+            generator.writeEndObject();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.writeRaw('\n');
+            generator.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.crm.system.modules.customer.importer;
+
+import cn.hutool.core.text.csv.CsvUtil;
+import cn.hutool.poi.excel.ExcelUtil;
+import com.crm.system.common.exception.BusinessException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 客户导入文件流式读取
+ *
+ * <p>CSV 逐行解析，XLSX 使用 SAX 方式解析，均不会把整个文件读入内存</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+public final class CustomerFileReader {
+
+    private CustomerFileReader() {
+    }
+
+    /**
+     * 逐行处理器
+     */
+    @FunctionalInterface
+    public interface RowConsumer {
+
+        /**
+         * 处理一行
+         *
+         * @param line  行号（从1开始，含表头）
+         * @param cells 单元格文本，空单元格为 null
+         */
+        void accept(long line, List<String> cells);
+    }
+
+    /**
+     * 判断文件类型是否支持
+     *
+     * @param fileName 文件名
+     * @return 是否为 csv 或 xlsx
+     */
+    public static boolean supports(String fileName) {
+        return isCsv(fileName) || isXlsx(fileName);
+    }
+
+    /**
+     * 流式读取文件（只读取 xlsx 的第一个工作表）
+     *
+     * @param file     文件
+     * @param fileName 原始文件名，用于判断格式
+     * @param consumer 逐行处理器
+     */
+    public static void read(File file, String fileName, RowConsumer consumer) {
+        if (isCsv(fileName)) {
+            try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                long[] line = {0};
+                CsvUtil.getReader().read(reader, row -> consumer.accept(++line[0], normalize(row.getRawList())));
+            } catch (IOException e) {
+                throw new BusinessException("读取导入文件失败: " + e.getMessage());
+            }
+        } else if (isXlsx(fileName)) {
+            ExcelUtil.readBySax(file, 0, (sheetIndex, rowIndex, cells) -> consumer.accept(rowIndex + 1, normalize(cells)));
+        } else {
+            throw new BusinessException("仅支持 csv 和 xlsx 格式的导入文件");
+        }
+    }
+
+    private static boolean isCsv(String fileName) {
+        return fileName != null && fileName.toLowerCase().endsWith(".csv");
+    }
+
+    private static boolean isXlsx(String fileName) {
+        return fileName != null && fileName.toLowerCase().endsWith(".xlsx");
+    }
+
+    /**
+     * 单元格统一转为去除首尾空白的文本；数值单元格（如 Excel 中的手机号）不使用科学计数法
+     */
+    private static List<String> normalize(List<?> cells) {
+        List<String> values = new ArrayList<>(cells.size());
+        for (Object cell : cells) {
+            String value;
+            if (cell == null) {
+                value = null;
+            } else if (cell instanceof Double || cell instanceof Float || cell instanceof BigDecimal) {
+                value = new BigDecimal(cell.toString()).stripTrailingZeros().toPlainString();
+            } else {
+                value = cell.toString().trim();
+            }
+            values.add(value == null || value.isEmpty() ? null : value);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,117 @@
+package com.crm.system.modules.customer.importer;
+
+import com.crm.system.modules.customer.dto.CustomerImportProgress;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 客户导入任务
+ *
+ * <p>导入线程更新计数，查询线程随时读取进度快照</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+public class CustomerImportJob {
+
+    /**
+     * 任务状态
+     */
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    @Getter
+    private final String jobId;
+
+    @Getter
+    private final String fileName;
+
+    private final int maxErrors;
+
+    private final LocalDateTime startTime = LocalDateTime.now();
+
+    private volatile Status status = Status.RUNNING;
+
+    private volatile LocalDateTime endTime;
+
+    private final AtomicLong totalRows = new AtomicLong();
+    private final AtomicLong importedRows = new AtomicLong();
+    private final AtomicLong duplicateRows = new AtomicLong();
+    private final AtomicLong invalidRows = new AtomicLong();
+
+    private final List<String> errors = new ArrayList<>();
+
+    public CustomerImportJob(String jobId, String fileName, int maxErrors) {
+        this.jobId = jobId;
+        this.fileName = fileName;
+        this.maxErrors = maxErrors;
+    }
+
+    public void addTotal(long rows) {
+        totalRows.addAndGet(rows);
+    }
+
+    public void addImported(long rows) {
+        importedRows.addAndGet(rows);
+    }
+
+    public void addDuplicate(long line, String phone) {
+        duplicateRows.incrementAndGet();
+        addError("第" + line + "行：手机号已存在 " + phone);
+    }
+
+    public void addInvalid(long line, String reason) {
+        invalidRows.incrementAndGet();
+        addError("第" + line + "行：" + reason);
+    }
+
+    public void complete() {
+        this.endTime = LocalDateTime.now();
+        this.status = Status.COMPLETED;
+    }
+
+    public void fail(String reason) {
+        addError(reason);
+        this.endTime = LocalDateTime.now();
+        this.status = Status.FAILED;
+    }
+
+    private void addError(String error) {
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.add(error);
+            }
+        }
+    }
+
+    /**
+     * 生成进度快照
+     *
+     * @return 进度
+     */
+    public CustomerImportProgress toProgress() {
+        List<String> errorSnapshot;
+        synchronized (errors) {
+            errorSnapshot = new ArrayList<>(errors);
+        }
+        return CustomerImportProgress.builder()
+                .jobId(jobId)
+                .fileName(fileName)
+                .status(status.name())
+                .totalRows(totalRows.get())
+                .importedRows(importedRows.get())
+                .duplicateRows(duplicateRows.get())
+                .invalidRows(invalidRows.get())
+                .errors(errorSnapshot)
+                .startTime(startTime)
+                .endTime(endTime)
+                .build();
+    }
+}
@@ -1,8 +1,17 @@
 package com.crm.system.modules.customer.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
 import com.crm.system.modules.customer.domain.Customer;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 
 /**
  * 客户 Mapper 接口
@@ -16,4 +25,47 @@ public interface CustomerMapper extends BaseMapper<Customer> {
     // MyBatis-Plus 提供了基础的 CRUD 方法，无需额外编写
 
     // 如需自定义查询，可在此添加方法并使用 @Select 注解或创建 XML 文件
+
+    /**
+     * 流式读取全部未删除客户的搜索字段（用于重建搜索索引）
+     *
+     * @param handler 逐行处理器
+     */
+    @Select("SELECT id, customer_name, contact_name, contact_phone FROM crm_customer WHERE is_deleted = 0")
+    @Options(fetchSize = Integer.MIN_VALUE, resultSetType = ResultSetType.FORWARD_ONLY)
+    @ResultType(Customer.class)
+    void selectForSearchIndex(ResultHandler<Customer> handler);
+
+    /**
+     * 流式读取全部未删除客户的联系电话（用于重建电话布隆过滤器）
+     *
+     * @param handler 逐行处理器
+     */
+    @Select("SELECT contact_phone FROM crm_customer WHERE is_deleted = 0")
+    @Options(fetchSize = Integer.MIN_VALUE, resultSetType = ResultSetType.FORWARD_ONLY)
+    @ResultType(String.class)
+    void selectActivePhones(ResultHandler<String> handler);
+
+    /**
+     * 插入客户（写入全部列，供批量导入在 BATCH 执行器下复用同一条语句）
+     *
+     * @param customer 客户（需预先分配ID）
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO crm_customer (id, customer_name, contact_name, contact_phone, contact_email, "
+            + "company_address, customer_source, customer_status, remark, create_time, update_time, is_deleted, version) "
+            + "VALUES (#{id}, #{customerName}, #{contactName}, #{contactPhone}, #{contactEmail}, "
+            + "#{companyAddress}, #{customerSource}, #{customerStatus}, #{remark}, #{createTime}, #{updateTime}, 0, 0)")
+    int insertForImport(Customer customer);
+
+    /**
+     * 按条件流式读取客户（用于导出，调用方需自行加上未删除条件）
+     *
+     * @param wrapper 查询条件
+     * @param handler 逐行处理器
+     */
+    @Select("SELECT * FROM crm_customer ${ew.customSqlSegment}")
+    @Options(fetchSize = Integer.MIN_VALUE, resultSetType = ResultSetType.FORWARD_ONLY)
+    @ResultType(Customer.class)
+    void selectForExport(@Param(Constants.WRAPPER) Wrapper<Customer> wrapper, ResultHandler<Customer> handler);
 }
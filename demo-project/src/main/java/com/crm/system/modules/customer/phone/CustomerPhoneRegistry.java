@@ -0,0 +1,168 @@
+package com.crm.system.modules.customer.phone;
+
+import com.crm.system.common.util.BloomFilter;
+import com.crm.system.modules.customer.mapper.CustomerMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 客户联系电话登记表（布隆过滤器）
+ *
+ * <p>记录所有已被使用过的联系电话，写入客户前先查过滤器：</p>
+ * <ul>
+ *   <li>过滤器判定一定不存在：跳过数据库查重</li>
+ *   <li>过滤器判定可能存在：照常查询数据库</li>
+ * </ul>
+ *
+ * <p>布隆过滤器不支持删除，客户删除或改号后旧电话仍会判定为可能存在，只是多一次查询。
+ * 过滤器只反映本节点的写入，其他节点新增的电话可能被误判为不存在，
+ * 因此最终以数据库唯一约束 uk_active_phone 为准。
+ * 应用启动后流式读取全表构建；写入量超过预计容量时自动重建，避免误判率上升。</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CustomerPhoneRegistry {
+
+    @Value("${crm.customer.phone-filter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${crm.customer.phone-filter.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${crm.customer.phone-filter.fpp:0.01}")
+    private double fpp;
+
+    private final CustomerMapper customerMapper;
+    private final MeterRegistry meterRegistry;
+
+    private volatile BloomFilter filter;
+
+    /**
+     * 重建过程中新写入的电话同时写入新过滤器
+     */
+    private volatile BloomFilter building;
+
+    private volatile boolean ready;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final AtomicLong insertions = new AtomicLong();
+    private volatile long capacity;
+
+    private Counter skippedCounter;
+    private Counter checkedCounter;
+
+    @PostConstruct
+    public void init() {
+        this.skippedCounter = Counter.builder("customer.phone.check")
+                .tag("result", "skipped")
+                .description("布隆过滤器判定不存在、跳过数据库查重的次数")
+                .register(meterRegistry);
+        this.checkedCounter = Counter.builder("customer.phone.check")
+                .tag("result", "queried")
+                .description("需要查询数据库确认电话是否已存在的次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 应用启动后构建过滤器
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 判断电话是否可能已被使用
+     *
+     * @param phone 联系电话
+     * @return false 表示一定未被使用，可以跳过数据库查重
+     */
+    public boolean mightExist(String phone) {
+        BloomFilter current = filter;
+        if (!ready || current == null || current.mightContain(phone)) {
+            checkedCounter.increment();
+            return true;
+        }
+        skippedCounter.increment();
+        return false;
+    }
+
+    /**
+     * 登记已使用的电话
+     *
+     * <p>事务回滚时多登记的电话只会造成一次多余的查询，因此无需等到提交后</p>
+     *
+     * @param phone 联系电话
+     */
+    public void register(String phone) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(phone);
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(phone);
+        }
+        // 恰好在切换过滤器的同时写入，补写到新过滤器
+        BloomFilter latest = filter;
+        if (latest != null && latest != current) {
+            latest.put(phone);
+        }
+        if (ready && insertions.incrementAndGet() > capacity && !rebuilding.get()) {
+            log.info("客户电话过滤器写入量超过预计容量 {}，后台重建", capacity);
+            CompletableFuture.runAsync(this::rebuild);
+        }
+    }
+
+    /**
+     * 流式读取全部未删除客户的电话，重建过滤器
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            AtomicLong count = new AtomicLong();
+            long size = Math.max(expectedInsertions, insertions.get() * 2);
+            BloomFilter rebuilt = new BloomFilter(size, fpp);
+            this.building = rebuilt;
+            customerMapper.selectActivePhones(context -> {
+                String phone = context.getResultObject();
+                if (phone != null) {
+                    rebuilt.put(phone);
+                    count.incrementAndGet();
+                }
+            });
+
+            this.capacity = size;
+            this.insertions.set(count.get());
+            this.filter = rebuilt;
+            this.building = null;
+            this.ready = true;
+            log.info("客户电话过滤器重建完成，电话数: {}，容量: {}，耗时: {}ms",
+                    count.get(), size, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            this.building = null;
+            log.error("客户电话过滤器重建失败，继续使用数据库查重", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+}
@@ -0,0 +1,641 @@
+package com.crm.system.modules.customer.search;
+
+import com.crm.system.common.util.TransactionUtils;
+import com.crm.system.modules.customer.domain.Customer;
+import com.crm.system.modules.customer.mapper.CustomerMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 客户搜索索引（进程内 n-gram 倒排索引）
+ *
+ * <p>替代客户名称、联系人、联系电话上的 {@code LIKE '%x%'} 全表扫描：</p>
+ * <ul>
+ *   <li>分词：文本统一小写、去空白，联系电话只保留数字；按字生成一元和二元词元，
+ *       中文姓名无需词典即可支持任意子串搜索，联系电话只生成二元词元</li>
+ *   <li>检索：取查询串的全部词元求倒排表交集，再以原文做子串校验去除误命中</li>
+ *   <li>同步：客户增删改在事务提交后更新索引；应用启动后和手动触发时全量重建，
+ *       重建期间的增量变更记录下来，切换到新索引后按主键补录</li>
+ *   <li>多节点：变更的客户ID合并后通过客户缓存的 Redis 失效通知频道广播，
+ *       其他节点收到后按主键回表重新索引</li>
+ *   <li>索引未就绪、命中过多，或多节点部署但没有 Redis 同步时返回 null，
+ *       由调用方回退到数据库模糊查询</li>
+ * </ul>
+ *
+ * <p>只解析模糊条件，客户状态、来源等精确筛选仍由数据库完成</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CustomerSearchIndex {
+
+    /**
+     * 字段权重：客户名称 > 联系人 > 联系电话
+     */
+    private static final int WEIGHT_CUSTOMER_NAME = 3;
+    private static final int WEIGHT_CONTACT_NAME = 2;
+    private static final int WEIGHT_CONTACT_PHONE = 1;
+
+    /**
+     * 索引同步通知前缀，与客户缓存失效通知共用频道
+     */
+    private static final String SYNC_MESSAGE_PREFIX = "index:";
+
+    /**
+     * 每条同步通知最多携带的客户ID数
+     */
+    private static final int SYNC_BATCH_SIZE = 500;
+
+    /**
+     * 本节点标识，用于忽略自己发出的同步通知
+     */
+    private static final String NODE_ID = UUID.randomUUID().toString();
+
+    @Value("${crm.search.customer.enabled:true}")
+    private boolean enabled;
+
+    @Value("${crm.search.customer.max-candidates:1000}")
+    private int maxCandidates;
+
+    @Value("${crm.search.customer.single-node:true}")
+    private boolean singleNode;
+
+    @Value("${crm.search.customer.sync-interval-ms:200}")
+    private long syncIntervalMs;
+
+    @Value("${crm.cache.customer.redis.enabled:false}")
+    private boolean redisEnabled;
+
+    @Value("${crm.cache.customer.redis.channel:crm:customer:invalidate}")
+    private String channel;
+
+    private final CustomerMapper customerMapper;
+    private final ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    private StringRedisTemplate redisTemplate;
+    private ScheduledExecutorService syncExecutor;
+    private final Queue<Long> changedIds = new ConcurrentLinkedQueue<>();
+
+    private volatile Segment segment = new Segment();
+
+    /**
+     * 索引是否已完成首次构建
+     */
+    @Getter
+    private volatile boolean ready;
+
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Queue<Long> pendingIds = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        if (redisEnabled) {
+            this.redisTemplate = redisTemplateProvider.getIfAvailable();
+        }
+        if (redisTemplate == null && !singleNode) {
+            log.warn("多节点部署且未开启 Redis 同步，客户搜索索引无法保持一致，模糊搜索回退到数据库");
+        }
+        this.syncExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "customer-search-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (redisTemplate != null) {
+            syncExecutor.scheduleWithFixedDelay(this::publishChanges, syncIntervalMs, syncIntervalMs,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (syncExecutor != null) {
+            syncExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 应用启动后构建索引
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 全量重建索引
+     *
+     * @return 索引的客户数；已有重建在进行时返回 -1
+     */
+    public int rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return -1;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            pendingIds.clear();
+            Segment rebuilt = new Segment();
+            customerMapper.selectForSearchIndex(context -> rebuilt.put(Document.of(context.getResultObject())));
+            this.segment = rebuilt;
+            this.ready = true;
+
+            // 补录重建期间发生变更的客户（已删除的客户查不到，从索引中移除）
+            Set<Long> ids = new HashSet<>();
+            Long id;
+            while ((id = pendingIds.poll()) != null) {
+                ids.add(id);
+            }
+            reload(rebuilt, ids);
+            log.info("客户搜索索引重建完成，客户数: {}，耗时: {}ms",
+                    rebuilt.documents.size(), System.currentTimeMillis() - start);
+            return rebuilt.documents.size();
+        } catch (Exception e) {
+            log.error("客户搜索索引重建失败", e);
+            throw e;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * 在当前事务提交后把客户写入索引
+     *
+     * @param customer 客户（需包含搜索字段）
+     */
+    public void indexAfterCommit(Customer customer) {
+        Document document = Document.of(customer);
+        TransactionUtils.afterCommit(() -> {
+            markPending(document.id);
+            Segment target;
+            do {
+                target = segment;
+                target.put(document);
+            } while (target != segment);
+            markChanged(document.id);
+        });
+    }
+
+    /**
+     * 在当前事务提交后把客户从索引中移除
+     *
+     * @param id 客户ID
+     */
+    public void removeAfterCommit(Long id) {
+        TransactionUtils.afterCommit(() -> {
+            markPending(id);
+            Segment target;
+            do {
+                target = segment;
+                target.remove(id);
+            } while (target != segment);
+            markChanged(id);
+        });
+    }
+
+    /**
+     * 按字段模糊条件检索客户ID
+     *
+     * @param customerName   客户名称关键字
+     * @param contactName    联系人关键字
+     * @param contactPhone   联系电话关键字
+     * @return 命中的客户ID；索引不可用、没有模糊条件或命中超过 max-candidates 时返回 null
+     */
+    public Set<Long> match(String customerName, String contactName, String contactPhone) {
+        if (!isAvailable()) {
+            return null;
+        }
+        Query query = new Query();
+        query.add(Field.CUSTOMER_NAME, customerName);
+        query.add(Field.CONTACT_NAME, contactName);
+        query.add(Field.CONTACT_PHONE, contactPhone);
+        if (query.unsupported || query.terms.isEmpty()) {
+            return null;
+        }
+
+        Segment current = segment;
+        Set<Long> ids = new HashSet<>();
+        for (Long id : current.candidates(query.tokens)) {
+            Document document = current.documents.get(id);
+            if (document != null && query.matches(document)) {
+                if (ids.size() >= maxCandidates) {
+                    return null;
+                }
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 跨字段关键字检索，按相关度排序
+     *
+     * <p>相关度 = 命中字段权重之和，完全相等和前缀命中额外加分，相同时新客户在前</p>
+     *
+     * @param keyword 关键字
+     * @param limit   最多返回条数
+     * @return 按相关度降序的客户ID；索引不可用时返回 null
+     */
+    public List<Long> search(String keyword, int limit) {
+        if (!isAvailable()) {
+            return null;
+        }
+        Segment current = segment;
+        Map<Long, Integer> scores = new HashMap<>();
+        for (Field field : Field.values()) {
+            String text = field.normalize(keyword);
+            if (text.isEmpty() || (field == Field.CONTACT_PHONE && text.length() < 2)) {
+                continue;
+            }
+            for (Long id : current.candidates(field.queryTokens(text))) {
+                Document document = current.documents.get(id);
+                String value = document == null ? null : document.value(field);
+                if (value == null || !value.contains(text)) {
+                    continue;
+                }
+                int score = field.weight * 10;
+                if (value.equals(text)) {
+                    score += 5;
+                } else if (value.startsWith(text)) {
+                    score += 2;
+                }
+                scores.merge(id, score, Integer::sum);
+            }
+        }
+
+        List<Map.Entry<Long, Integer>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Long, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey(Comparator.reverseOrder())));
+        List<Long> ids = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            ids.add(ranked.get(i).getKey());
+        }
+        return ids;
+    }
+
+    /**
+     * 索引能否代替数据库查询：已就绪，且单节点部署或已开启 Redis 同步
+     */
+    private boolean isAvailable() {
+        return enabled && ready && (singleNode || redisTemplate != null);
+    }
+
+    /**
+     * 频道消息是否为索引同步通知（失效通知频道同时承载客户缓存的通知）
+     *
+     * @param message 通知内容
+     * @return 是否由 {@link #onSyncMessage(String)} 处理
+     */
+    public boolean isSyncMessage(String message) {
+        return message.startsWith(SYNC_MESSAGE_PREFIX);
+    }
+
+    /**
+     * 处理其他节点发来的索引同步通知，在同步线程中回表重新索引
+     *
+     * @param message 通知内容（index:节点标识:客户ID,客户ID...）
+     */
+    public void onSyncMessage(String message) {
+        if (!enabled || syncExecutor == null) {
+            return;
+        }
+        int separator = message.indexOf(':', SYNC_MESSAGE_PREFIX.length());
+        if (separator < 0 || NODE_ID.equals(message.substring(SYNC_MESSAGE_PREFIX.length(), separator))) {
+            return;
+        }
+        Set<Long> ids = new HashSet<>();
+        try {
+            for (String id : StringUtils.split(message.substring(separator + 1), ',')) {
+                ids.add(Long.valueOf(id));
+            }
+        } catch (NumberFormatException e) {
+            log.warn("忽略无法识别的客户搜索索引同步通知: {}", message);
+            return;
+        }
+        try {
+            syncExecutor.execute(() -> {
+                ids.forEach(this::markPending);
+                Segment target;
+                do {
+                    target = segment;
+                    reload(target, ids);
+                } while (target != segment);
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("应用关闭中，跳过客户搜索索引同步，客户数: {}", ids.size());
+        }
+    }
+
+    /**
+     * 按主键回表刷新索引，已删除的客户从索引中移除
+     */
+    private void reload(Segment target, Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            Map<Long, Customer> current = new HashMap<>();
+            customerMapper.selectBatchIds(ids).forEach(customer -> current.put(customer.getId(), customer));
+            for (Long id : ids) {
+                Customer customer = current.get(id);
+                if (customer != null) {
+                    target.put(Document.of(customer));
+                } else {
+                    target.remove(id);
+                }
+            }
+        } catch (Exception e) {
+            log.error("客户搜索索引回表刷新失败，客户数: {}", ids.size(), e);
+        }
+    }
+
+    private void markPending(Long id) {
+        if (rebuilding.get()) {
+            pendingIds.add(id);
+        }
+    }
+
+    private void markChanged(Long id) {
+        if (redisTemplate != null) {
+            changedIds.add(id);
+        }
+    }
+
+    /**
+     * 合并发布本节点变更的客户ID，每条通知最多 SYNC_BATCH_SIZE 个
+     */
+    private void publishChanges() {
+        Set<Long> batch = new HashSet<>();
+        Long id;
+        while ((id = changedIds.poll()) != null) {
+            batch.add(id);
+            if (batch.size() >= SYNC_BATCH_SIZE) {
+                publish(batch);
+                batch.clear();
+            }
+        }
+        publish(batch);
+    }
+
+    private void publish(Set<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(channel,
+                    SYNC_MESSAGE_PREFIX + NODE_ID + ":" + StringUtils.join(ids, ','));
+        } catch (Exception e) {
+            log.warn("客户搜索索引同步通知发送失败，其他节点的索引可能过期，客户数: {}", ids.size(), e);
+        }
+    }
+
+    /**
+     * 被索引的字段
+     */
+    private enum Field {
+
+        CUSTOMER_NAME("n:", WEIGHT_CUSTOMER_NAME, true),
+        CONTACT_NAME("c:", WEIGHT_CONTACT_NAME, true),
+        CONTACT_PHONE("p:", WEIGHT_CONTACT_PHONE, false);
+
+        private final String prefix;
+        private final int weight;
+        private final boolean unigram;
+
+        Field(String prefix, int weight, boolean unigram) {
+            this.prefix = prefix;
+            this.weight = weight;
+            this.unigram = unigram;
+        }
+
+        /**
+         * 归一化：小写、去空白；联系电话只保留数字
+         */
+        String normalize(String text) {
+            if (text == null) {
+                return "";
+            }
+            StringBuilder normalized = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (this == CONTACT_PHONE ? Character.isDigit(c) : !Character.isWhitespace(c)) {
+                    normalized.append(Character.toLowerCase(c));
+                }
+            }
+            return normalized.toString();
+        }
+
+        /**
+         * 文档写入时生成的词元
+         */
+        Set<String> indexTokens(String text) {
+            Set<String> tokens = new HashSet<>();
+            for (int i = 0; i < text.length(); i++) {
+                if (unigram) {
+                    tokens.add(prefix + text.charAt(i));
+                }
+                if (i + 1 < text.length()) {
+                    tokens.add(prefix + text.substring(i, i + 2));
+                }
+            }
+            return tokens;
+        }
+
+        /**
+         * 查询时使用的词元：单字查一元词元，否则查全部二元词元
+         */
+        Set<String> queryTokens(String text) {
+            if (text.length() == 1) {
+                return Collections.singleton(prefix + text);
+            }
+            Set<String> tokens = new HashSet<>();
+            for (int i = 0; i + 1 < text.length(); i++) {
+                tokens.add(prefix + text.substring(i, i + 2));
+            }
+            return tokens;
+        }
+    }
+
+    /**
+     * 被索引的客户（只保留模糊搜索的字段）
+     */
+    private static final class Document {
+
+        private Long id;
+        private String customerName;
+        private String contactName;
+        private String contactPhone;
+
+        static Document of(Customer customer) {
+            Document document = new Document();
+            document.id = customer.getId();
+            document.customerName = Field.CUSTOMER_NAME.normalize(customer.getCustomerName());
+            document.contactName = Field.CONTACT_NAME.normalize(customer.getContactName());
+            document.contactPhone = Field.CONTACT_PHONE.normalize(customer.getContactPhone());
+            return document;
+        }
+
+        String value(Field field) {
+            switch (field) {
+                case CUSTOMER_NAME:
+                    return customerName;
+                case CONTACT_NAME:
+                    return contactName;
+                default:
+                    return contactPhone;
+            }
+        }
+
+        Set<String> tokens() {
+            Set<String> tokens = new HashSet<>();
+            for (Field field : Field.values()) {
+                tokens.addAll(field.indexTokens(value(field)));
+            }
+            return tokens;
+        }
+    }
+
+    /**
+     * 一次字段检索的条件
+     */
+    private static final class Query {
+
+        private final Map<Field, String> terms = new EnumMap<>(Field.class);
+        private final Set<String> tokens = new HashSet<>();
+        private boolean unsupported;
+
+        void add(Field field, String raw) {
+            if (StringUtils.isBlank(raw)) {
+                return;
+            }
+            String text = field.normalize(raw);
+            // 去掉非数字后为空的电话，或单个数字的电话，交给数据库处理
+            if (text.isEmpty() || (!field.unigram && text.length() < 2)) {
+                unsupported = true;
+                return;
+            }
+            terms.put(field, text);
+            tokens.addAll(field.queryTokens(text));
+        }
+
+        boolean matches(Document document) {
+            for (Map.Entry<Field, String> term : terms.entrySet()) {
+                if (!document.value(term.getKey()).contains(term.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 倒排索引数据
+     */
+    private static final class Segment {
+
+        private final Map<Long, Document> documents = new ConcurrentHashMap<>();
+        private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+        void put(Document document) {
+            documents.compute(document.id, (id, previous) -> {
+                Set<String> tokens = document.tokens();
+                if (previous != null) {
+                    for (String token : previous.tokens()) {
+                        if (!tokens.contains(token)) {
+                            unlink(token, id);
+                        }
+                    }
+                }
+                for (String token : tokens) {
+                    postings.compute(token, (key, ids) -> {
+                        Set<Long> linked = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                        linked.add(id);
+                        return linked;
+                    });
+                }
+                return document;
+            });
+        }
+
+        void remove(Long id) {
+            documents.computeIfPresent(id, (key, previous) -> {
+                for (String token : previous.tokens()) {
+                    unlink(token, id);
+                }
+                return null;
+            });
+        }
+
+        private void unlink(String token, Long id) {
+            postings.computeIfPresent(token, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+
+        /**
+         * 包含全部词元的候选文档：从最短的倒排表开始逐个求交集
+         */
+        Set<Long> candidates(Set<String> tokens) {
+            if (tokens.isEmpty()) {
+                return Collections.emptySet();
+            }
+            List<Set<Long>> lists = new ArrayList<>(tokens.size());
+            for (String token : tokens) {
+                Set<Long> ids = postings.get(token);
+                if (ids == null) {
+                    return Collections.emptySet();
+                }
+                lists.add(ids);
+            }
+            lists.sort(Comparator.comparingInt(Set::size));
+
+            Set<Long> result = new HashSet<>();
+            for (Long id : lists.get(0)) {
+                boolean all = true;
+                for (int i = 1; i < lists.size() && all; i++) {
+                    all = lists.get(i).contains(id);
+                }
+                if (all) {
+                    result.add(id);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.crm.system.modules.customer.service;
+
+import com.crm.system.modules.customer.dto.CustomerImportProgress;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * 客户批量导入服务接口
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+public interface CustomerImportService {
+
+    /**
+     * 提交导入任务（后台异步执行）
+     *
+     * @param file csv 或 xlsx 文件，首行为表头
+     * @return 任务初始进度（含任务ID）
+     */
+    CustomerImportProgress submitImport(MultipartFile file);
+
+    /**
+     * 查询导入任务进度
+     *
+     * @param jobId 任务ID
+     * @return 任务进度
+     */
+    CustomerImportProgress getImportProgress(String jobId);
+}
@@ -1,7 +1,13 @@
 package com.crm.system.modules.customer.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.crm.system.common.result.CursorPageResult;
 import com.crm.system.modules.customer.dto.*;
+import com.crm.system.modules.customer.exporter.CustomerExportWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
 
 /**
  * 客户服务接口
@@ -50,4 +56,40 @@ public interface CustomerService {
      * @return 分页结果
      */
     IPage<CustomerResponse> getCustomerPage(CustomerQueryRequest request);
+
+    /**
+     * 游标分页查询客户（按创建时间排序）
+     *
+     * @param request 查询请求
+     * @return 游标分页结果
+     */
+    CursorPageResult<CustomerResponse> getCustomerCursorPage(CustomerQueryRequest request);
+
+    /**
+     * 按关键字搜索客户（匹配客户名称、联系人、联系电话，按相关度排序）
+     *
+     * @param keyword 关键字
+     * @param limit   最多返回条数
+     * @return 客户列表
+     */
+    List<CustomerResponse> searchCustomers(String keyword, Integer limit);
+
+    /**
+     * 重建客户搜索索引
+     *
+     * @return 索引的客户数
+     */
+    int rebuildSearchIndex();
+
+    /**
+     * 按查询条件流式导出客户
+     *
+     * @param request 查询请求（分页参数不生效）
+     * @param format  导出格式
+     * @param out     输出流
+     * @return 导出的客户数
+     * @throws IOException 写入失败（如客户端断开）
+     */
+    long exportCustomers(CustomerQueryRequest request, CustomerExportWriter.Format format, OutputStream out)
+            throws IOException;
 }
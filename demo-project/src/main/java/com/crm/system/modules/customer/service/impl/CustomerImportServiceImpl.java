@@ -0,0 +1,429 @@
+package com.crm.system.modules.customer.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.crm.system.common.exception.BusinessException;
+import com.crm.system.modules.audit.event.AuditEvent;
+import com.crm.system.modules.audit.util.SecurityUtils;
+import com.crm.system.modules.customer.domain.Customer;
+import com.crm.system.modules.customer.dto.CustomerCreateRequest;
+import com.crm.system.modules.customer.dto.CustomerImportProgress;
+import com.crm.system.modules.customer.importer.CustomerFileReader;
+import com.crm.system.modules.customer.importer.CustomerImportJob;
+import com.crm.system.modules.customer.mapper.CustomerMapper;
+import com.crm.system.modules.customer.phone.CustomerPhoneRegistry;
+import com.crm.system.modules.customer.search.CustomerSearchIndex;
+import com.crm.system.modules.customer.service.CustomerImportService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PostConstruct;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 客户批量导入服务实现类
+ *
+ * <p>文件先落到临时文件，由后台线程流式解析，每 chunk-size 行为一批：</p>
+ * <ol>
+ *   <li>按单条创建相同的规则校验（复用 {@link CustomerCreateRequest} 的校验注解）</li>
+ *   <li>批内手机号去重，再用一次 IN 查询与数据库去重（电话过滤器判定一定不存在的不参与查询）</li>
+ *   <li>在一个事务内用 JDBC 批量插入，并为整批写一条汇总审计记录</li>
+ *   <li>批量插入因并发写入同一手机号失败时，回滚后逐条插入，跳过重复的行</li>
+ * </ol>
+ *
+ * <p>任何时刻内存中只有一批数据，占用与文件大小无关</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@Slf4j
+@Service
+public class CustomerImportServiceImpl implements CustomerImportService {
+
+    /**
+     * 表头（支持中文或字段名）到字段的映射
+     */
+    private static final Map<String, String> HEADERS = new HashMap<>();
+
+    static {
+        String[][] headers = {
+                {"customerName", "客户名称"},
+                {"contactName", "联系人姓名", "联系人"},
+                {"contactPhone", "联系电话", "手机号"},
+                {"contactEmail", "联系邮箱", "邮箱"},
+                {"companyAddress", "公司地址"},
+                {"customerSource", "客户来源"},
+                {"customerStatus", "客户状态"},
+                {"remark", "备注"}
+        };
+        for (String[] names : headers) {
+            for (String name : names) {
+                HEADERS.put(name.toLowerCase(), names[0]);
+            }
+        }
+    }
+
+    /**
+     * 未填写客户状态时的默认值，与表默认值一致
+     */
+    private static final String DEFAULT_STATUS = "POTENTIAL";
+
+    @Value("${crm.customer.import.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${crm.customer.import.max-errors:100}")
+    private int maxErrors;
+
+    @Value("${crm.customer.import.job-retention-hours:24}")
+    private long jobRetentionHours;
+
+    private final CustomerMapper customerMapper;
+    private final SqlSessionFactory sqlSessionFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SecurityUtils securityUtils;
+    private final CustomerPhoneRegistry customerPhoneRegistry;
+    private final CustomerSearchIndex customerSearchIndex;
+    private final Executor importExecutor;
+
+    private Cache<String, CustomerImportJob> jobs;
+
+    public CustomerImportServiceImpl(CustomerMapper customerMapper,
+                                     SqlSessionFactory sqlSessionFactory,
+                                     TransactionTemplate transactionTemplate,
+                                     Validator validator,
+                                     ApplicationEventPublisher eventPublisher,
+                                     SecurityUtils securityUtils,
+                                     CustomerPhoneRegistry customerPhoneRegistry,
+                                     CustomerSearchIndex customerSearchIndex,
+                                     @Qualifier("customerImportExecutor") Executor importExecutor) {
+        this.customerMapper = customerMapper;
+        this.sqlSessionFactory = sqlSessionFactory;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.eventPublisher = eventPublisher;
+        this.securityUtils = securityUtils;
+        this.customerPhoneRegistry = customerPhoneRegistry;
+        this.customerSearchIndex = customerSearchIndex;
+        this.importExecutor = importExecutor;
+    }
+
+    @PostConstruct
+    public void init() {
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(jobRetentionHours, TimeUnit.HOURS)
+                .build();
+    }
+
+    @Override
+    public CustomerImportProgress submitImport(MultipartFile file) {
+        String fileName = file.getOriginalFilename();
+        if (file.isEmpty() || !CustomerFileReader.supports(fileName)) {
+            throw new BusinessException("请上传 csv 或 xlsx 格式的导入文件");
+        }
+
+        File tempFile;
+        try {
+            tempFile = File.createTempFile("customer-import-", fileName.substring(fileName.lastIndexOf('.')));
+            file.transferTo(tempFile);
+        } catch (IOException e) {
+            throw new BusinessException("保存导入文件失败: " + e.getMessage());
+        }
+
+        // 操作人在请求线程中获取，后台线程中没有请求上下文
+        AuditEvent.OperatorInfo operator = securityUtils.getCurrentOperator();
+        long jobId = IdWorker.getId();
+        CustomerImportJob job = new CustomerImportJob(String.valueOf(jobId), fileName, maxErrors);
+        jobs.put(job.getJobId(), job);
+
+        try {
+            importExecutor.execute(() -> runImport(job, jobId, tempFile, operator));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.getJobId());
+            tempFile.delete();
+            throw new BusinessException("导入任务过多，请稍后重试");
+        }
+        return job.toProgress();
+    }
+
+    @Override
+    public CustomerImportProgress getImportProgress(String jobId) {
+        CustomerImportJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new BusinessException("导入任务不存在或已过期");
+        }
+        return job.toProgress();
+    }
+
+    /**
+     * 执行导入
+     */
+    private void runImport(CustomerImportJob job, long jobId, File file, AuditEvent.OperatorInfo operator) {
+        long start = System.currentTimeMillis();
+        log.info("开始导入客户，任务ID: {}，文件: {}", job.getJobId(), job.getFileName());
+
+        ImportContext context = new ImportContext(job, jobId, operator);
+        try {
+            CustomerFileReader.read(file, job.getFileName(), context::accept);
+            context.flush();
+            job.complete();
+            log.info("客户导入完成，任务ID: {}，耗时: {}ms，进度: {}",
+                    job.getJobId(), System.currentTimeMillis() - start, job.toProgress());
+        } catch (Exception e) {
+            log.error("客户导入失败，任务ID: {}", job.getJobId(), e);
+            job.fail("导入中止: " + e.getMessage());
+        } finally {
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException e) {
+                log.warn("删除导入临时文件失败: {}", file, e);
+            }
+        }
+    }
+
+    /**
+     * 一次导入的解析状态
+     */
+    private final class ImportContext {
+
+        private final CustomerImportJob job;
+        private final long jobId;
+        private final AuditEvent.OperatorInfo operator;
+
+        private Map<String, Integer> columns;
+        private final List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        private int chunkIndex;
+
+        ImportContext(CustomerImportJob job, long jobId, AuditEvent.OperatorInfo operator) {
+            this.job = job;
+            this.jobId = jobId;
+            this.operator = operator;
+        }
+
+        void accept(long line, List<String> cells) {
+            if (columns == null) {
+                columns = parseHeader(cells);
+                return;
+            }
+            job.addTotal(1);
+            CustomerCreateRequest request = toRequest(cells);
+            Set<ConstraintViolation<CustomerCreateRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                job.addInvalid(line, violations.iterator().next().getMessage());
+                return;
+            }
+            chunk.add(new ImportRow(line, request));
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            importChunk(job, jobId, ++chunkIndex, new ArrayList<>(chunk), operator);
+            chunk.clear();
+        }
+
+        private Map<String, Integer> parseHeader(List<String> cells) {
+            Map<String, Integer> mapping = new HashMap<>();
+            for (int i = 0; i < cells.size(); i++) {
+                String cell = cells.get(i);
+                if (cell == null) {
+                    continue;
+                }
+                // 去掉 UTF-8 BOM
+                String field = HEADERS.get(cell.replace("\uFEFF", "").trim().toLowerCase());
+                if (field != null) {
+                    mapping.put(field, i);
+                }
+            }
+            if (!mapping.containsKey("customerName") || !mapping.containsKey("contactName")
+                    || !mapping.containsKey("contactPhone")) {
+                throw new BusinessException("导入文件表头缺少客户名称、联系人姓名或联系电话");
+            }
+            return mapping;
+        }
+
+        private CustomerCreateRequest toRequest(List<String> cells) {
+            CustomerCreateRequest request = new CustomerCreateRequest();
+            request.setCustomerName(cell(cells, "customerName"));
+            request.setContactName(cell(cells, "contactName"));
+            request.setContactPhone(cell(cells, "contactPhone"));
+            request.setContactEmail(cell(cells, "contactEmail"));
+            request.setCompanyAddress(cell(cells, "companyAddress"));
+            request.setCustomerSource(cell(cells, "customerSource"));
+            request.setCustomerStatus(StringUtils.defaultIfBlank(cell(cells, "customerStatus"), DEFAULT_STATUS));
+            request.setRemark(cell(cells, "remark"));
+            return request;
+        }
+
+        private String cell(List<String> cells, String field) {
+            Integer index = columns.get(field);
+            return index == null || index >= cells.size() ? null : cells.get(index);
+        }
+    }
+
+    /**
+     * 导入一批客户
+     */
+    private void importChunk(CustomerImportJob job, long jobId, int chunkIndex,
+                             List<ImportRow> rows, AuditEvent.OperatorInfo operator) {
+        // 批内去重
+        Map<String, ImportRow> byPhone = new LinkedHashMap<>();
+        for (ImportRow row : rows) {
+            String phone = row.request.getContactPhone();
+            if (byPhone.putIfAbsent(phone, row) != null) {
+                job.addDuplicate(row.line, phone);
+            }
+        }
+
+        // 与数据库去重：一次 IN 查询，过滤器判定一定不存在的手机号不参与查询
+        List<String> candidates = new ArrayList<>();
+        for (String phone : byPhone.keySet()) {
+            if (customerPhoneRegistry.mightExist(phone)) {
+                candidates.add(phone);
+            }
+        }
+        if (!candidates.isEmpty()) {
+            LambdaQueryWrapper<Customer> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(Customer::getContactPhone).in(Customer::getContactPhone, candidates);
+            for (Object existing : customerMapper.selectObjs(wrapper)) {
+                ImportRow row = byPhone.remove(String.valueOf(existing));
+                if (row != null) {
+                    job.addDuplicate(row.line, row.request.getContactPhone());
+                }
+            }
+        }
+        if (byPhone.isEmpty()) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<Customer> customers = new ArrayList<>(byPhone.size());
+        for (ImportRow row : byPhone.values()) {
+            Customer customer = new Customer();
+            BeanUtils.copyProperties(row.request, customer);
+            customer.setId(IdWorker.getId());
+            customer.setCreateTime(now);
+            customer.setUpdateTime(now);
+            customers.add(customer);
+        }
+
+        List<Customer> inserted;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+                    CustomerMapper batchMapper = session.getMapper(CustomerMapper.class);
+                    for (Customer customer : customers) {
+                        batchMapper.insertForImport(customer);
+                    }
+                    session.flushStatements();
+                }
+                publishChunkAudit(job, jobId, chunkIndex, customers, operator);
+            });
+            inserted = customers;
+        } catch (Exception e) {
+            log.warn("客户批量插入失败，逐条重试，任务ID: {}，批次: {}", job.getJobId(), chunkIndex, e);
+            inserted = insertOneByOne(job, jobId, chunkIndex, byPhone, customers, operator);
+        }
+
+        for (Customer customer : inserted) {
+            customerPhoneRegistry.register(customer.getContactPhone());
+            customerSearchIndex.indexAfterCommit(customer);
+        }
+        job.addImported(inserted.size());
+    }
+
+    /**
+     * 批量插入失败后逐条插入，跳过手机号已被并发写入的行
+     */
+    private List<Customer> insertOneByOne(CustomerImportJob job, long jobId, int chunkIndex,
+                                          Map<String, ImportRow> byPhone, List<Customer> customers,
+                                          AuditEvent.OperatorInfo operator) {
+        List<Customer> inserted = new ArrayList<>(customers.size());
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Customer customer : customers) {
+                try {
+                    customerMapper.insertForImport(customer);
+                    inserted.add(customer);
+                } catch (DuplicateKeyException e) {
+                    job.addDuplicate(byPhone.get(customer.getContactPhone()).line, customer.getContactPhone());
+                }
+            }
+            if (!inserted.isEmpty()) {
+                publishChunkAudit(job, jobId, chunkIndex, inserted, operator);
+            }
+        });
+        return inserted;
+    }
+
+    /**
+     * 为一批导入的客户发布一条汇总审计事件（事务提交后由审计监听器处理）
+     */
+    private void publishChunkAudit(CustomerImportJob job, long jobId, int chunkIndex,
+                                   List<Customer> customers, AuditEvent.OperatorInfo operator) {
+        List<Long> ids = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            ids.add(customer.getId());
+        }
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("importJobId", job.getJobId());
+        summary.put("fileName", job.getFileName());
+        summary.put("chunk", chunkIndex);
+        summary.put("count", customers.size());
+        summary.put("customerIds", ids);
+
+        eventPublisher.publishEvent(AuditEvent.builder()
+                .moduleName("customer")
+                .operationType(AuditEvent.OperationType.CREATE)
+                .businessId(jobId)
+                .operator(operator)
+                .operateTime(LocalDateTime.now())
+                .afterData(summary)
+                .build());
+    }
+
+    /**
+     * 通过校验的一行数据
+     */
+    private static final class ImportRow {
+
+        private final long line;
+        private final CustomerCreateRequest request;
+
+        ImportRow(long line, CustomerCreateRequest request) {
+            this.line = line;
+            this.request = request;
+        }
+    }
+}
@@ -2,21 +2,40 @@ package com.crm.system.modules.customer.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
-import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.crm.system.common.exception.BusinessException;
+import com.crm.system.common.page.CountedPage;
+import com.crm.system.common.page.PageCounter;
+import com.crm.system.common.result.CursorPageResult;
+import com.crm.system.common.result.PageCursor;
 import com.crm.system.modules.audit.annotation.AuditLog;
 import com.crm.system.modules.audit.event.AuditEvent;
+import com.crm.system.modules.customer.cache.CustomerCache;
 import com.crm.system.modules.customer.domain.Customer;
+import com.crm.system.modules.customer.exporter.CustomerExportWriter;
 import com.crm.system.modules.customer.dto.*;
 import com.crm.system.modules.customer.mapper.CustomerMapper;
+import com.crm.system.modules.customer.phone.CustomerPhoneRegistry;
+import com.crm.system.modules.customer.search.CustomerSearchIndex;
 import com.crm.system.modules.customer.service.CustomerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.BeanUtils;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * 客户服务实现类
  *
@@ -28,6 +47,11 @@ import org.springframework.transaction.annotation.Transactional;
 public class CustomerServiceImpl extends ServiceImpl<CustomerMapper, Customer> implements CustomerService {
 
     private final CustomerMapper customerMapper;
+    private final PageCounter pageCounter;
+    private final CustomerSearchIndex customerSearchIndex;
+    private final CustomerCache customerCache;
+    private final CustomerPhoneRegistry customerPhoneRegistry;
+    private final ObjectMapper objectMapper;
 
     @Override
     @Transactional(rollbackFor = Exception.class)
@@ -38,19 +62,27 @@ public class CustomerServiceImpl extends ServiceImpl<CustomerMapper, Customer> i
             fetchBeforeData = false
     )
     public CustomerResponse createCustomer(CustomerCreateRequest request) {
-        // 检查手机号是否已存在
-        LambdaQueryWrapper<Customer> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(Customer::getContactPhone, request.getContactPhone());
-        if (customerMapper.selectCount(wrapper) > 0) {
-            throw new BusinessException("该手机号已存在");
+        // 检查手机号是否已存在（过滤器判定一定不存在时跳过查询）
+        if (customerPhoneRegistry.mightExist(request.getContactPhone())) {
+            LambdaQueryWrapper<Customer> wrapper = new LambdaQueryWrapper<>();
+            wrapper.eq(Customer::getContactPhone, request.getContactPhone());
+            if (customerMapper.selectCount(wrapper) > 0) {
+                throw new BusinessException("该手机号已存在");
+            }
         }
 
         // 创建客户实体
         Customer customer = new Customer();
         BeanUtils.copyProperties(request, customer);
 
-        // 保存客户
-        customerMapper.insert(customer);
+        // 保存客户（并发写入同一手机号时由唯一约束兜底）
+        try {
+            customerMapper.insert(customer);
+        } catch (DuplicateKeyException e) {
+            throw new BusinessException("该手机号已存在");
+        }
+        customerPhoneRegistry.register(customer.getContactPhone());
+        customerSearchIndex.indexAfterCommit(customer);
 
         // 返回响应
         return buildResponse(customer);
@@ -71,17 +103,29 @@ public class CustomerServiceImpl extends ServiceImpl<CustomerMapper, Customer> i
             throw new BusinessException("客户不存在");
         }
 
-        // 检查手机号是否被其他客户使用
-        LambdaQueryWrapper<Customer> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(Customer::getContactPhone, request.getContactPhone());
-        wrapper.ne(Customer::getId, id);
-        if (customerMapper.selectCount(wrapper) > 0) {
-            throw new BusinessException("该手机号已被其他客户使用");
+        // 检查手机号是否被其他客户使用（手机号未变更或过滤器判定一定不存在时跳过查询）
+        boolean phoneChanged = !request.getContactPhone().equals(customer.getContactPhone());
+        if (phoneChanged && customerPhoneRegistry.mightExist(request.getContactPhone())) {
+            LambdaQueryWrapper<Customer> wrapper = new LambdaQueryWrapper<>();
+            wrapper.eq(Customer::getContactPhone, request.getContactPhone());
+            wrapper.ne(Customer::getId, id);
+            if (customerMapper.selectCount(wrapper) > 0) {
+                throw new BusinessException("该手机号已被其他客户使用");
+            }
         }
 
         // 更新客户信息
         BeanUtils.copyProperties(request, customer);
-        customerMapper.updateById(customer);
+        try {
+            customerMapper.updateById(customer);
+        } catch (DuplicateKeyException e) {
+            throw new BusinessException("该手机号已被其他客户使用");
+        }
+        if (phoneChanged) {
+            customerPhoneRegistry.register(customer.getContactPhone());
+        }
+        customerSearchIndex.indexAfterCommit(customer);
+        customerCache.evictAfterCommit(id);
 
         return buildResponse(customer);
     }
@@ -106,34 +150,179 @@ public class CustomerServiceImpl extends ServiceImpl<CustomerMapper, Customer> i
 
         // 删除客户（逻辑删除）
         customerMapper.deleteById(id);
+        customerSearchIndex.removeAfterCommit(id);
+        customerCache.evictAfterCommit(id);
     }
 
     @Override
     public CustomerResponse getCustomerById(Long id) {
-        Customer customer = customerMapper.selectById(id);
-        if (customer == null) {
-            throw new BusinessException("客户不存在");
-        }
-        return buildResponse(customer);
+        return customerCache.get(id, key -> {
+            Customer customer = customerMapper.selectById(key);
+            if (customer == null) {
+                throw new BusinessException("客户不存在");
+            }
+            return buildResponse(customer);
+        });
     }
 
     @Override
     public IPage<CustomerResponse> getCustomerPage(CustomerQueryRequest request) {
         // 构建分页对象
-        Page<Customer> page = new Page<>(request.getCurrent(), request.getSize());
+        CountedPage<Customer> page = pageCounter.newPage(request.getCurrent(), request.getSize(), request.getCountMode());
 
-        // 构建查询条件
-        LambdaQueryWrapper<Customer> wrapper = new LambdaQueryWrapper<>();
+        // 构建查询条件，并按请求的模式统计总数
+        LambdaQueryWrapper<Customer> wrapper = buildQueryWrapper(request);
+        pageCounter.count(page, customerMapper, Customer.class, wrapper);
+
+        // 排序
+        if ("createTime".equals(request.getSortField())) {
+            wrapper.orderBy(true, !"desc".equalsIgnoreCase(request.getSortOrder()), Customer::getCreateTime);
+        }
 
-        // 模糊搜索
-        if (StringUtils.isNotBlank(request.getCustomerName())) {
-            wrapper.like(Customer::getCustomerName, request.getCustomerName());
+        // 查询分页数据
+        IPage<Customer> customerPage = customerMapper.selectPage(page, wrapper);
+
+        // 转换为响应 DTO
+        return customerPage.convert(this::buildResponse);
+    }
+
+    @Override
+    public CursorPageResult<CustomerResponse> getCustomerCursorPage(CustomerQueryRequest request) {
+        boolean ascending = "asc".equalsIgnoreCase(request.getSortOrder());
+        int size = PageCursor.checkSize(request.getSize());
+        LambdaQueryWrapper<Customer> wrapper = buildQueryWrapper(request);
+
+        CursorPageResult<Customer> result = new CursorPageResult<>();
+        result.setSize(request.getSize());
+        if (Boolean.TRUE.equals(request.getWithTotal())) {
+            result.setTotal(customerMapper.selectCount(wrapper));
         }
-        if (StringUtils.isNotBlank(request.getContactName())) {
-            wrapper.like(Customer::getContactName, request.getContactName());
+
+        // 按 (create_time, id) 定位到上一页末尾之后，多取一条判断是否还有下一页
+        PageCursor cursor = PageCursor.decode(request.getCursor());
+        if (cursor != null) {
+            wrapper.apply("(create_time, id) " + (ascending ? ">" : "<") + " ({0}, {1})",
+                    cursor.getTime(), cursor.getId());
         }
-        if (StringUtils.isNotBlank(request.getContactPhone())) {
-            wrapper.like(Customer::getContactPhone, request.getContactPhone());
+        wrapper.orderBy(true, ascending, Customer::getCreateTime, Customer::getId);
+        wrapper.last("LIMIT " + (size + 1));
+        List<Customer> customers = customerMapper.selectList(wrapper);
+
+        boolean hasMore = customers.size() > size;
+        if (hasMore) {
+            customers = customers.subList(0, size);
+            Customer last = customers.get(size - 1);
+            result.setNextCursor(new PageCursor(last.getCreateTime(), last.getId()).encode());
+        }
+        result.setHasMore(hasMore);
+        result.setRecords(customers);
+        return result.convert(this::buildResponse);
+    }
+
+    @Override
+    public List<CustomerResponse> searchCustomers(String keyword, Integer limit) {
+        if (StringUtils.isBlank(keyword)) {
+            return Collections.emptyList();
+        }
+        int max = limit == null || limit <= 0 ? 20 : Math.min(limit, 100);
+        List<Long> ids = customerSearchIndex.search(keyword, max);
+        if (ids == null) {
+            // 索引不可用时回退到数据库模糊查询，按创建时间倒序
+            LambdaQueryWrapper<Customer> wrapper = new LambdaQueryWrapper<>();
+            wrapper.and(w -> w.like(Customer::getCustomerName, keyword)
+                            .or().like(Customer::getContactName, keyword)
+                            .or().like(Customer::getContactPhone, keyword))
+                    .orderByDesc(Customer::getCreateTime)
+                    .last("LIMIT " + max);
+            return customerMapper.selectList(wrapper).stream()
+                    .map(this::buildResponse)
+                    .collect(Collectors.toList());
+        }
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        // 按主键回表，并保持相关度顺序
+        Map<Long, Customer> customers = customerMapper.selectBatchIds(ids).stream()
+                .collect(Collectors.toMap(Customer::getId, Function.identity()));
+        List<CustomerResponse> responses = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Customer customer = customers.get(id);
+            if (customer != null) {
+                responses.add(buildResponse(customer));
+            }
+        }
+        return responses;
+    }
+
+    @Override
+    public int rebuildSearchIndex() {
+        int indexed = customerSearchIndex.rebuild();
+        if (indexed < 0) {
+            throw new BusinessException("客户搜索索引正在重建中");
+        }
+        return indexed;
+    }
+
+    @Override
+    public long exportCustomers(CustomerQueryRequest request, CustomerExportWriter.Format format, OutputStream out)
+            throws IOException {
+        LambdaQueryWrapper<Customer> wrapper = buildQueryWrapper(request);
+        // 自定义 SQL 不会自动追加逻辑删除条件
+        wrapper.eq(Customer::getIsDeleted, 0);
+        boolean ascending = "asc".equalsIgnoreCase(request.getSortOrder());
+        wrapper.orderBy(true, ascending, Customer::getCreateTime, Customer::getId);
+
+        long[] count = {0};
+        IOException[] failure = {null};
+        try (CustomerExportWriter writer = CustomerExportWriter.create(format, out, objectMapper)) {
+            customerMapper.selectForExport(wrapper, context -> {
+                try {
+                    writer.write(context.getResultObject());
+                    count[0]++;
+                } catch (IOException e) {
+                    // 客户端断开时停止读取；MyBatis 会把处理器抛出的异常包装为系统异常，因此只记录不抛出
+                    failure[0] = e;
+                    context.stop();
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+        }
+        return count[0];
+    }
+
+    /**
+     * 构建客户查询条件（不含排序）
+     *
+     * <p>模糊条件优先由搜索索引解析为客户ID，索引不可用或命中过多时回退到 LIKE；精确筛选始终由数据库完成</p>
+     *
+     * @param request 查询请求
+     * @return 查询条件
+     */
+    private LambdaQueryWrapper<Customer> buildQueryWrapper(CustomerQueryRequest request) {
+        LambdaQueryWrapper<Customer> wrapper = new LambdaQueryWrapper<>();
+
+        Set<Long> matchedIds = customerSearchIndex.match(request.getCustomerName(), request.getContactName(),
+                request.getContactPhone());
+        if (matchedIds != null) {
+            if (matchedIds.isEmpty()) {
+                wrapper.apply("1 = 0");
+                return wrapper;
+            }
+            wrapper.in(Customer::getId, matchedIds);
+        } else {
+            // 模糊搜索
+            if (StringUtils.isNotBlank(request.getCustomerName())) {
+                wrapper.like(Customer::getCustomerName, request.getCustomerName());
+            }
+            if (StringUtils.isNotBlank(request.getContactName())) {
+                wrapper.like(Customer::getContactName, request.getContactName());
+            }
+            if (StringUtils.isNotBlank(request.getContactPhone())) {
+                wrapper.like(Customer::getContactPhone, request.getContactPhone());
+            }
         }
 
         // 精确筛选
@@ -143,17 +332,7 @@ public class CustomerServiceImpl extends ServiceImpl<CustomerMapper, Customer> i
         if (StringUtils.isNotBlank(request.getCustomerSource())) {
             wrapper.eq(Customer::getCustomerSource, request.getCustomerSource());
         }
-
-        // 排序
-        if ("createTime".equals(request.getSortField())) {
-            wrapper.orderBy(true, "desc".equalsIgnoreCase(request.getSortOrder()), Customer::getCreateTime);
-        }
-
-        // 查询分页数据
-        IPage<Customer> customerPage = customerMapper.selectPage(page, wrapper);
-
-        // 转换为响应 DTO
-        return customerPage.convert(this::buildResponse);
+        return wrapper;
     }
 
     /**
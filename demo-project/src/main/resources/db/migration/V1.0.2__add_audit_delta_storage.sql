@@ -0,0 +1,22 @@
+-- =====================================================
+-- 审计日志增量存储改造脚本
+-- 版本: V1.0.2
+-- 描述: 新增存储模式和字段级增量数据列，支持只记录变更字段的增量存储
+-- 作者: AI Assistant
+-- 日期: 2025-01-20
+-- =====================================================
+
+ALTER TABLE `crm_audit_log`
+    ADD COLUMN `storage_mode` VARCHAR(10) NOT NULL DEFAULT 'FULL' COMMENT '存储模式: FULL-全量快照，DELTA-增量' AFTER `changed_fields`,
+    ADD COLUMN `delta_data` JSON COMMENT '字段级增量数据（JSON格式: {"字段名": [变更前, 变更后]}）' AFTER `storage_mode`;
+
+-- 重建完整数据时，需要按业务数据查找最近一条全量快照
+ALTER TABLE `crm_audit_log`
+    ADD INDEX `idx_business_storage` (`module_name`, `business_id`, `storage_mode`, `id`);
+
+-- =====================================================
+-- 说明
+-- =====================================================
+-- 历史数据的 storage_mode 默认为 FULL，无需迁移
+-- idx_business_storage: 用于定位某业务数据在指定审计日志之前的最近一条全量快照
+-- =====================================================
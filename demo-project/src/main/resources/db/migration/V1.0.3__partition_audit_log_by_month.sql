@@ -0,0 +1,54 @@
+-- =====================================================
+-- 审计日志表按月分区脚本
+-- 版本: V1.0.3
+-- 描述: crm_audit_log 按 operate_time 按月 RANGE 分区，过期数据按分区整体删除
+-- 作者: AI Assistant
+-- 日期: 2025-01-25
+-- =====================================================
+
+-- MySQL 要求分区列包含在每个唯一键中，主键调整为 (id, operate_time)
+-- 雪花算法ID全局唯一，调整后不影响按ID查询
+ALTER TABLE `crm_audit_log`
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (`id`, `operate_time`);
+
+-- 按月分区：p_history 存放上线前的历史数据，p_future 兜底未预建分区的数据
+-- 后续月份的分区由 AuditRetentionJob 从 p_future 中拆分预建
+ALTER TABLE `crm_audit_log`
+PARTITION BY RANGE (TO_DAYS(`operate_time`)) (
+    PARTITION p_history VALUES LESS THAN (TO_DAYS('2025-01-01')),
+    PARTITION p202501 VALUES LESS THAN (TO_DAYS('2025-02-01')),
+    PARTITION p202502 VALUES LESS THAN (TO_DAYS('2025-03-01')),
+    PARTITION p202503 VALUES LESS THAN (TO_DAYS('2025-04-01')),
+    PARTITION p202504 VALUES LESS THAN (TO_DAYS('2025-05-01')),
+    PARTITION p202505 VALUES LESS THAN (TO_DAYS('2025-06-01')),
+    PARTITION p202506 VALUES LESS THAN (TO_DAYS('2025-07-01')),
+    PARTITION p202507 VALUES LESS THAN (TO_DAYS('2025-08-01')),
+    PARTITION p202508 VALUES LESS THAN (TO_DAYS('2025-09-01')),
+    PARTITION p202509 VALUES LESS THAN (TO_DAYS('2025-10-01')),
+    PARTITION p202510 VALUES LESS THAN (TO_DAYS('2025-11-01')),
+    PARTITION p202511 VALUES LESS THAN (TO_DAYS('2025-12-01')),
+    PARTITION p202512 VALUES LESS THAN (TO_DAYS('2026-01-01')),
+    PARTITION p202601 VALUES LESS THAN (TO_DAYS('2026-02-01')),
+    PARTITION p202602 VALUES LESS THAN (TO_DAYS('2026-03-01')),
+    PARTITION p202603 VALUES LESS THAN (TO_DAYS('2026-04-01')),
+    PARTITION p202604 VALUES LESS THAN (TO_DAYS('2026-05-01')),
+    PARTITION p202605 VALUES LESS THAN (TO_DAYS('2026-06-01')),
+    PARTITION p202606 VALUES LESS THAN (TO_DAYS('2026-07-01')),
+    PARTITION p202607 VALUES LESS THAN (TO_DAYS('2026-08-01')),
+    PARTITION p202608 VALUES LESS THAN (TO_DAYS('2026-09-01')),
+    PARTITION p202609 VALUES LESS THAN (TO_DAYS('2026-10-01')),
+    PARTITION p202610 VALUES LESS THAN (TO_DAYS('2026-11-01')),
+    PARTITION p202611 VALUES LESS THAN (TO_DAYS('2026-12-01')),
+    PARTITION p202612 VALUES LESS THAN (TO_DAYS('2027-01-01')),
+    PARTITION p_future VALUES LESS THAN MAXVALUE
+);
+
+-- =====================================================
+-- 说明
+-- =====================================================
+-- 分区命名: pYYYYMM，存放该月的审计日志
+-- 分区裁剪: 带 operate_time 范围条件的查询只扫描命中的分区
+-- 数据保留: 超过 audit.retention.days 的分区由定时任务 DROP PARTITION，无需逐行 DELETE
+-- 注意: 仅按 id 查询（如 selectById）无法裁剪分区，会在每个分区上各做一次主键查找
+-- =====================================================
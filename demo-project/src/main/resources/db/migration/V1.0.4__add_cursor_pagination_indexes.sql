@@ -0,0 +1,20 @@
+-- =====================================================
+-- 游标分页索引脚本
+-- 版本: V1.0.4
+-- 描述: 为游标分页的排序键 (排序时间, id) 建立复合索引
+-- 作者: AI Assistant
+-- 日期: 2025-02-01
+-- =====================================================
+
+-- 客户列表：逻辑删除条件 is_deleted = 0 在前，(create_time, id) 定位并按索引顺序返回
+ALTER TABLE `crm_customer`
+    ADD INDEX `idx_deleted_create_time_id` (`is_deleted`, `create_time`, `id`);
+
+-- =====================================================
+-- 说明
+-- =====================================================
+-- crm_audit_log 无需新增索引：InnoDB 二级索引隐含主键列，
+-- idx_operate_time 实际为 (operate_time, id, operate_time)，可直接满足 (operate_time, id) 的定位和排序
+-- crm_customer 的 idx_create_time 不能由新索引代替：新索引以 is_deleted 开头，
+-- 不带 is_deleted 条件的 create_time 范围查询和排序（如统计、清理任务）仍依赖 idx_create_time，需保留
+-- =====================================================
@@ -0,0 +1,33 @@
+-- =====================================================
+-- 审计日志查询复合索引脚本
+-- 版本: V1.0.5
+-- 描述: 按常用查询形态建立 (等值条件列..., operate_time) 复合索引，
+--       使筛选和 ORDER BY operate_time 都由索引完成，避免 filesort
+-- 作者: AI Assistant
+-- 日期: 2025-02-08
+-- =====================================================
+
+ALTER TABLE `crm_audit_log`
+    -- 某条业务数据的变更历史（替代 idx_module_business）
+    ADD INDEX `idx_module_business_time` (`module_name`, `business_id`, `operate_time`),
+    -- 某人的操作记录（替代 idx_operator）
+    ADD INDEX `idx_operator_time` (`operator_id`, `operate_time`),
+    -- 按模块、操作类型浏览
+    ADD INDEX `idx_module_operation_time` (`module_name`, `operation_type`, `operate_time`),
+    -- 按上报状态排查
+    ADD INDEX `idx_report_status_time` (`report_status`, `operate_time`);
+
+-- 被新索引的最左前缀覆盖的旧索引
+ALTER TABLE `crm_audit_log`
+    DROP INDEX `idx_module_business`,
+    DROP INDEX `idx_operator`,
+    DROP INDEX `idx_report_status`;
+
+-- =====================================================
+-- 索引说明
+-- =====================================================
+-- 二级索引隐含主键 (id, operate_time)，以上索引同时满足游标分页的 (operate_time, id) 定位
+-- 仅按模块查询时使用 idx_module_operation_time 的最左前缀
+-- operator_name 为 '%x%' 模糊查询，无法使用B树索引，只能在其他条件命中的行上过滤
+-- 实际查询形态的使用频率和索引命中情况见 actuator 端点 /actuator/auditadvisor
+-- =====================================================
@@ -0,0 +1,25 @@
+-- =====================================================
+-- 客户联系电话唯一约束脚本
+-- 版本: V1.0.6
+-- 描述: 未删除客户的联系电话唯一。逻辑删除的客户保留原电话，
+--       因此通过生成列只对未删除行取值，已删除行为 NULL，不参与唯一约束
+-- 作者: AI Assistant
+-- 日期: 2025-02-15
+-- =====================================================
+
+-- 执行前请先确认未删除客户中没有重复电话，否则唯一索引创建失败：
+-- SELECT contact_phone, COUNT(*) FROM crm_customer
+-- WHERE is_deleted = 0 GROUP BY contact_phone HAVING COUNT(*) > 1;
+
+ALTER TABLE `crm_customer`
+    ADD COLUMN `active_phone` VARCHAR(20)
+        GENERATED ALWAYS AS (IF(`is_deleted` = 0, `contact_phone`, NULL)) VIRTUAL
+        COMMENT '未删除客户的联系电话（唯一约束用）',
+    ADD UNIQUE KEY `uk_active_phone` (`active_phone`);
+
+-- =====================================================
+-- 说明
+-- =====================================================
+-- 写入前的电话查重只是快速给出友好提示，并发写入时以唯一约束为准：
+-- 违反约束的 DuplicateKeyException 由服务层转换为业务异常
+-- =====================================================
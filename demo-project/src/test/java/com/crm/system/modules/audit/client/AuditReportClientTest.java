@@ -0,0 +1,240 @@
+package com.crm.system.modules.audit.client;
+
+import com.crm.system.modules.audit.domain.AuditLog;
+import com.crm.system.modules.audit.dto.AuditReportResponse;
+import com.crm.system.modules.audit.storage.AuditDeltaStorage;
+import com.crm.system.modules.audit.util.DiffUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.RequestMatcher;
+import org.springframework.test.web.client.ResponseActions;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * 审计日志批量上报客户端测试
+ *
+ * <p>校验批次切分（条数上限、字节上限、单条超限）和逐条结果的采信规则</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+class AuditReportClientTest {
+
+    private static final String BATCH_URL = "http://audit.test/api/audit/logs/batch";
+
+    private static final String BATCH_OK = "{\"success\":true,\"message\":\"ok\"}";
+
+    @Mock
+    private DiffUtils diffUtils;
+
+    @Mock
+    private AuditCircuitBreaker circuitBreaker;
+
+    @Mock
+    private AuditConcurrencyLimiter concurrencyLimiter;
+
+    @Mock
+    private AuditDeltaStorage auditDeltaStorage;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private MockRestServiceServer server;
+
+    private AuditReportClient client;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        client = new AuditReportClient(restTemplate, diffUtils, objectMapper,
+                circuitBreaker, concurrencyLimiter, auditDeltaStorage);
+        ReflectionTestUtils.setField(client, "reportEnabled", true);
+        ReflectionTestUtils.setField(client, "apiKey", "test-key");
+        ReflectionTestUtils.setField(client, "batchReportUrl", BATCH_URL);
+        ReflectionTestUtils.setField(client, "batchSize", 100);
+        ReflectionTestUtils.setField(client, "batchMaxBytes", 1024 * 1024);
+
+        when(concurrencyLimiter.tryAcquire()).thenReturn(true);
+        when(circuitBreaker.tryAcquirePermission()).thenReturn(true);
+    }
+
+    @Test
+    @DisplayName("超过 batch.size 时按条数切分批次")
+    void splitsByBatchSize() {
+        ReflectionTestUtils.setField(client, "batchSize", 2);
+        List<AuditLog> logs = logs(1L, 2L, 3L, 4L, 5L);
+
+        expectBatch(1L, 2L).andRespond(withSuccess(BATCH_OK, MediaType.APPLICATION_JSON));
+        expectBatch(3L, 4L).andRespond(withSuccess(BATCH_OK, MediaType.APPLICATION_JSON));
+        expectBatch(5L).andRespond(withSuccess(BATCH_OK, MediaType.APPLICATION_JSON));
+
+        Map<Long, AuditReportResponse.ItemResult> results = client.reportBatch(logs);
+
+        server.verify();
+        assertEquals(5, results.size());
+        results.values().forEach(result -> assertTrue(result.isSuccess()));
+    }
+
+    @Test
+    @DisplayName("超过 batch.max-bytes 时按字节切分批次")
+    void splitsByMaxBytes() {
+        List<AuditLog> logs = logs(1L, 2L, 3L);
+        int itemBytes = itemBytes(logs.get(0));
+        // '[' + 条目 + ',' + 条目 + ']' 恰好放下两条
+        ReflectionTestUtils.setField(client, "batchMaxBytes", itemBytes * 2 + 3);
+
+        expectBatch(1L, 2L).andRespond(withSuccess(BATCH_OK, MediaType.APPLICATION_JSON));
+        expectBatch(3L).andRespond(withSuccess(BATCH_OK, MediaType.APPLICATION_JSON));
+
+        Map<Long, AuditReportResponse.ItemResult> results = client.reportBatch(logs);
+
+        server.verify();
+        assertEquals(3, results.size());
+    }
+
+    @Test
+    @DisplayName("单条超过 batch.max-bytes 时单独发送")
+    void sendsOversizedItemAlone() {
+        AuditLog oversized = log(2L, repeat('x', 2048));
+        List<AuditLog> logs = Arrays.asList(log(1L, "a"), oversized, log(3L, "a"));
+        ReflectionTestUtils.setField(client, "batchMaxBytes", itemBytes(logs.get(0)) * 3);
+
+        expectBatch(1L).andRespond(withSuccess(BATCH_OK, MediaType.APPLICATION_JSON));
+        expectBatch(2L).andRespond(withSuccess(BATCH_OK, MediaType.APPLICATION_JSON));
+        expectBatch(3L).andRespond(withSuccess(BATCH_OK, MediaType.APPLICATION_JSON));
+
+        Map<Long, AuditReportResponse.ItemResult> results = client.reportBatch(logs);
+
+        server.verify();
+        assertTrue(results.get(2L).isSuccess());
+    }
+
+    @Test
+    @DisplayName("逐条结果只采信本批次发送过的ID，缺失的按失败处理")
+    void matchesItemResultsToSentIds() {
+        List<AuditLog> logs = logs(1L, 2L, 3L);
+        String body = "{\"success\":true,\"items\":["
+                + "{\"auditLogId\":1,\"success\":true,\"auditId\":\"ext-1\"},"
+                + "{\"auditLogId\":2,\"success\":false,\"message\":\"invalid\"},"
+                + "{\"auditLogId\":99,\"success\":true,\"auditId\":\"ext-99\"}]}";
+
+        expectBatch(1L, 2L, 3L).andRespond(withSuccess(body, MediaType.APPLICATION_JSON));
+
+        Map<Long, AuditReportResponse.ItemResult> results = client.reportBatch(logs);
+
+        server.verify();
+        assertEquals(3, results.size());
+        assertFalse(results.containsKey(99L));
+        assertTrue(results.get(1L).isSuccess());
+        assertEquals("ext-1", results.get(1L).getAuditId());
+        assertFalse(results.get(2L).isSuccess());
+        assertEquals("invalid", results.get(2L).getMessage());
+        assertFalse(results.get(3L).isSuccess());
+    }
+
+    @Test
+    @DisplayName("未返回逐条结果时以整体结果为准")
+    void fallsBackToWholeBatchResult() {
+        List<AuditLog> logs = logs(1L, 2L);
+
+        expectBatch(1L, 2L).andRespond(withSuccess("{\"success\":false,\"message\":\"busy\"}",
+                MediaType.APPLICATION_JSON));
+
+        Map<Long, AuditReportResponse.ItemResult> results = client.reportBatch(logs);
+
+        server.verify();
+        assertEquals(2, results.size());
+        for (AuditReportResponse.ItemResult result : results.values()) {
+            assertFalse(result.isSuccess());
+            assertFalse(result.isRejected());
+            assertEquals("busy", result.getMessage());
+        }
+    }
+
+    private ResponseActions expectBatch(Long... ids) {
+        return server.expect(requestTo(BATCH_URL))
+                .andExpect(method(HttpMethod.POST))
+                .andExpect(header("X-API-Key", "test-key"))
+                .andExpect(auditLogIds(ids));
+    }
+
+    /**
+     * 请求体为 JSON 数组，且按顺序包含给定的审计日志ID
+     */
+    private RequestMatcher auditLogIds(Long... ids) {
+        return request -> {
+            JsonNode items = objectMapper.readTree(((MockClientHttpRequest) request).getBodyAsBytes());
+            assertTrue(items.isArray());
+            List<Long> sent = new ArrayList<>();
+            items.forEach(item -> sent.add(item.get("auditLogId").asLong()));
+            assertEquals(Arrays.asList(ids), sent);
+        };
+    }
+
+    private int itemBytes(AuditLog auditLog) {
+        Object request = ReflectionTestUtils.invokeMethod(client, "buildRequest", auditLog);
+        try {
+            return objectMapper.writeValueAsBytes(request).length;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<AuditLog> logs(Long... ids) {
+        List<AuditLog> logs = new ArrayList<>(ids.length);
+        for (Long id : ids) {
+            logs.add(log(id, "a"));
+        }
+        return logs;
+    }
+
+    private static AuditLog log(Long id, String name) {
+        return AuditLog.builder()
+                .id(id)
+                .moduleName("customer")
+                .operationType("CREATE")
+                .businessId(100L)
+                .operatorId(1L)
+                .operatorName("admin")
+                .operateTime(LocalDateTime.of(2024, 1, 1, 12, 0, 0))
+                .afterData("{\"customerName\":\"" + name + "\"}")
+                .traceId("trace")
+                .build();
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
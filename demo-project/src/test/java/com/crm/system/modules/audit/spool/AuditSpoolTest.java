@@ -0,0 +1,189 @@
+package com.crm.system.modules.audit.spool;
+
+import com.crm.system.modules.audit.domain.AuditLog;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 审计日志本地预写日志崩溃恢复测试
+ *
+ * <p>模拟进程崩溃留下的不完整记录和检查点，校验重新打开后只回放完整且校验通过的记录</p>
+ *
+ * @author AI Assistant
+ * @since 1.0.0
+ */
+class AuditSpoolTest {
+
+    @TempDir
+    Path spoolDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private final List<AuditSpool> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(AuditSpool::close);
+    }
+
+    @Test
+    @DisplayName("末尾记录内容损坏时截断，只回放之前的完整记录，并从截断处继续追加")
+    void truncatesCorruptedTail() throws IOException {
+        AuditSpool spool = openSpool();
+        append(spool, 1L, 2L, 3L);
+        spool.close();
+
+        // 第三条记录写了长度但内容未完整落盘
+        int[] offsets = recordOffsets(3);
+        corrupt(offsets[2] + 8);
+
+        AuditSpool reopened = openSpool();
+        assertEquals(Arrays.asList(1L, 2L), ids(reopened.read(10)));
+
+        append(reopened, 4L);
+        assertEquals(Arrays.asList(1L, 2L, 4L), ids(reopened.read(10)));
+    }
+
+    @Test
+    @DisplayName("末尾记录长度越界时视为分段末尾")
+    void ignoresTornLengthAtTail() throws IOException {
+        AuditSpool spool = openSpool();
+        append(spool, 1L, 2L);
+        spool.close();
+
+        int[] offsets = recordOffsets(2);
+        int tail = offsets[1] + recordLength(offsets[1]);
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile().toFile(), "rw")) {
+            file.seek(tail);
+            file.writeInt(Integer.MAX_VALUE);
+        }
+
+        AuditSpool reopened = openSpool();
+        assertEquals(Arrays.asList(1L, 2L), ids(reopened.read(10)));
+    }
+
+    @Test
+    @DisplayName("重新打开后从已提交的检查点之后继续回放")
+    void resumesAfterCommittedCheckpoint() throws IOException {
+        AuditSpool spool = openSpool();
+        append(spool, 1L, 2L, 3L);
+
+        AuditSpool.ReadResult first = spool.read(2);
+        assertEquals(Arrays.asList(1L, 2L), ids(first));
+        spool.commit(first.getPosition());
+        spool.close();
+
+        AuditSpool reopened = openSpool();
+        AuditSpool.ReadResult rest = reopened.read(10);
+        assertEquals(Arrays.asList(3L), ids(rest));
+        assertEquals(first.getPosition().getSegment(), rest.getPosition().getSegment());
+        assertTrue(rest.getPosition().getOffset() > first.getPosition().getOffset());
+    }
+
+    @Test
+    @DisplayName("检查点文件损坏时从头回放")
+    void replaysFromStartWhenCheckpointCorrupted() throws IOException {
+        AuditSpool spool = openSpool();
+        append(spool, 1L, 2L);
+        spool.commit(spool.read(1).getPosition());
+        spool.close();
+
+        Path checkpoint = spoolDir.resolve("checkpoint");
+        byte[] bytes = Files.readAllBytes(checkpoint);
+        bytes[0] ^= 0x7F;
+        Files.write(checkpoint, bytes);
+
+        AuditSpool reopened = openSpool();
+        assertEquals(Arrays.asList(1L, 2L), ids(reopened.read(10)));
+    }
+
+    private AuditSpool openSpool() throws IOException {
+        AuditSpool spool = new AuditSpool(objectMapper, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(spool, "enabled", true);
+        ReflectionTestUtils.setField(spool, "spoolDir", spoolDir.toString());
+        ReflectionTestUtils.setField(spool, "segmentSizeMb", 1);
+        ReflectionTestUtils.setField(spool, "maxSegments", 4);
+        ReflectionTestUtils.setField(spool, "syncOnAppend", true);
+        spool.open();
+        opened.add(spool);
+        return spool;
+    }
+
+    private static void append(AuditSpool spool, Long... ids) {
+        for (Long id : ids) {
+            assertTrue(spool.append(AuditLog.builder()
+                    .id(id)
+                    .moduleName("customer")
+                    .operationType("UPDATE")
+                    .businessId(100L)
+                    .operatorId(1L)
+                    .operatorName("admin")
+                    .operateTime(LocalDateTime.of(2024, 1, 1, 12, 0, 0))
+                    .afterData("{\"customerName\":\"test-" + id + "\"}")
+                    .build()));
+        }
+    }
+
+    private static List<Long> ids(AuditSpool.ReadResult result) {
+        List<Long> ids = new ArrayList<>();
+        result.getRecords().forEach(auditLog -> ids.add(auditLog.getId()));
+        return ids;
+    }
+
+    /**
+     * 按 [长度][CRC32][内容] 格式依次定位前 count 条记录的起始偏移
+     */
+    private int[] recordOffsets(int count) throws IOException {
+        int[] offsets = new int[count];
+        int offset = 0;
+        for (int i = 0; i < count; i++) {
+            offsets[i] = offset;
+            offset += recordLength(offset);
+        }
+        return offsets;
+    }
+
+    private int recordLength(int offset) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile().toFile(), "r")) {
+            file.seek(offset);
+            return 8 + file.readInt();
+        }
+    }
+
+    private void corrupt(int position) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(segmentFile().toFile(), "rw")) {
+            file.seek(position);
+            int value = file.read();
+            file.seek(position);
+            file.write(value ^ 0xFF);
+        }
+    }
+
+    private Path segmentFile() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(spoolDir, "audit-*.seg")) {
+            for (Path file : stream) {
+                return file;
+            }
+        }
+        throw new IllegalStateException("未找到分段文件");
+    }
+}